@@ -2,6 +2,7 @@ package io.wispforest.owo;
 
 import io.wispforest.owo.client.screens.ScreenInternals;
 import io.wispforest.owo.command.debug.OwoDebugCommands;
+import io.wispforest.owo.ext.DerivedComponentMap;
 import io.wispforest.owo.ops.LootOps;
 import io.wispforest.owo.text.CustomTextRegistry;
 import io.wispforest.owo.text.InsertingTextContent;
@@ -52,7 +53,11 @@ public class Owo implements ModInitializer {
         CustomTextRegistry.register(InsertingTextContent.TYPE, "index");
         ScreenInternals.init();
 
-        ServerLifecycleEvents.SERVER_STARTING.register(server -> SERVER = server);
+        ServerLifecycleEvents.SERVER_STARTING.register(server -> {
+            SERVER = server;
+            DerivedComponentMap.clearCache();
+        });
+        ServerLifecycleEvents.END_DATA_PACK_RELOAD.register((server, resourceManager, success) -> DerivedComponentMap.clearCache());
         ServerLifecycleEvents.SERVER_STOPPED.register(server -> SERVER = null);
 
         Wisdom.spread();
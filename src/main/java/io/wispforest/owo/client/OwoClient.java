@@ -7,6 +7,7 @@ import io.wispforest.owo.config.OwoConfigCommand;
 import io.wispforest.owo.itemgroup.json.OwoItemGroupLoader;
 import io.wispforest.owo.moddata.ModDataLoader;
 import io.wispforest.owo.shader.BlurProgram;
+import io.wispforest.owo.shader.DownsampledBlurProgram;
 import io.wispforest.owo.shader.GlProgram;
 import io.wispforest.owo.ui.parsing.UIModelLoader;
 import io.wispforest.owo.ui.util.NinePatchTexture;
@@ -49,6 +50,7 @@ public class OwoClient implements ClientModInitializer {
 
     public static final GlProgram HSV_PROGRAM = new GlProgram(Identifier.of("owo", "spectrum"), VertexFormats.POSITION_COLOR);
     public static final BlurProgram BLUR_PROGRAM = new BlurProgram();
+    public static final DownsampledBlurProgram DOWNSAMPLED_BLUR_PROGRAM = new DownsampledBlurProgram();
 
     @Override
     public void onInitializeClient() {
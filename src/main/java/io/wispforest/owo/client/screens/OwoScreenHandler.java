@@ -2,6 +2,7 @@ package io.wispforest.owo.client.screens;
 
 import io.wispforest.endec.Endec;
 import io.wispforest.endec.impl.ReflectiveEndecBuilder;
+import io.wispforest.owo.serialization.endec.CompiledRecordEndec;
 import net.minecraft.entity.player.PlayerEntity;
 import org.jetbrains.annotations.NotNull;
 
@@ -53,10 +54,10 @@ public interface OwoScreenHandler {
 
     /**
      * Shorthand for {@link #addServerboundMessage(Class, Endec, Consumer)} which creates the endec
-     * through {@link ReflectiveEndecBuilder#get(Class)}
+     * through {@link CompiledRecordEndec#get(ReflectiveEndecBuilder, Class)}
      */
     default <R extends Record> void addServerboundMessage(Class<R> messageClass, Consumer<R> handler) {
-        this.addServerboundMessage(messageClass, this.endecBuilder().get(messageClass), handler);
+        this.addServerboundMessage(messageClass, CompiledRecordEndec.get(this.endecBuilder(), messageClass), handler);
     }
 
     /**
@@ -77,10 +78,10 @@ public interface OwoScreenHandler {
 
     /**
      * Shorthand for {@link #addClientboundMessage(Class, Endec, Consumer)} which creates the endec
-     * through {@link ReflectiveEndecBuilder#get(Class)}
+     * through {@link CompiledRecordEndec#get(ReflectiveEndecBuilder, Class)}
      */
     default <R extends Record> void addClientboundMessage(Class<R> messageClass, Consumer<R> handler) {
-        this.addClientboundMessage(messageClass, this.endecBuilder().get(messageClass), handler);
+        this.addClientboundMessage(messageClass, CompiledRecordEndec.get(this.endecBuilder(), messageClass), handler);
     }
 
     /**
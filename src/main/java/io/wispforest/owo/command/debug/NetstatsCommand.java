@@ -0,0 +1,157 @@
+package io.wispforest.owo.command.debug;
+
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.context.CommandContext;
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import com.mojang.brigadier.exceptions.SimpleCommandExceptionType;
+import com.mojang.brigadier.suggestion.SuggestionProvider;
+import io.wispforest.owo.Owo;
+import io.wispforest.owo.network.NetworkMetrics;
+import io.wispforest.owo.ops.TextOps;
+import net.minecraft.command.CommandSource;
+import net.minecraft.command.argument.EntityArgumentType;
+import net.minecraft.command.argument.IdentifierArgumentType;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.text.Text;
+import net.minecraft.util.Formatting;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.UUID;
+
+import static net.minecraft.server.command.CommandManager.argument;
+import static net.minecraft.server.command.CommandManager.literal;
+
+public class NetstatsCommand {
+
+    private static final SuggestionProvider<ServerCommandSource> CHANNELS =
+            (context, builder) -> CommandSource.suggestIdentifiers(NetworkMetrics.byChannel().keySet(), builder);
+
+    private static final SimpleCommandExceptionType NO_SUCH_CHANNEL = new SimpleCommandExceptionType(Text.of("No such channel"));
+
+    private static final Comparator<NetworkMetrics.Counters> BY_TRAFFIC =
+            Comparator.<NetworkMetrics.Counters>comparingLong(counters -> counters.bytesSent() + counters.bytesReceived()).reversed();
+
+    private static final Comparator<NetworkMetrics.Counters> BY_MESSAGES =
+            Comparator.<NetworkMetrics.Counters>comparingLong(counters -> counters.messagesSent() + counters.messagesReceived()).reversed();
+
+    public static void register(CommandDispatcher<ServerCommandSource> dispatcher) {
+        dispatcher.register(literal("netstats")
+                .executes(NetstatsCommand::executeOverview)
+                .then(literal("channel").then(argument("channel", IdentifierArgumentType.identifier()).suggests(CHANNELS)
+                        .executes(NetstatsCommand::executeChannel)))
+                .then(literal("player").then(argument("player", EntityArgumentType.player())
+                        .executes(NetstatsCommand::executePlayer)))
+                .then(literal("reset").executes(NetstatsCommand::executeReset)));
+    }
+
+    private static int executeOverview(CommandContext<ServerCommandSource> context) {
+        var source = context.getSource();
+        header(source, "Network Channels");
+
+        var channels = NetworkMetrics.byChannel().values().stream()
+                .sorted(Comparator.comparing(NetworkMetrics::total, BY_TRAFFIC))
+                .toList();
+
+        for (var metrics : channels) {
+            feedback(source, TextOps.withColor("-> §" + metrics.channelId(), TextOps.color(Formatting.GRAY), OwoDebugCommands.KEY_BLUE));
+            sendCounters(source, metrics.total());
+        }
+
+        return channels.size();
+    }
+
+    private static int executeChannel(CommandContext<ServerCommandSource> context) throws CommandSyntaxException {
+        var source = context.getSource();
+        var metrics = NetworkMetrics.of(IdentifierArgumentType.getIdentifier(context, "channel"));
+        if (metrics == null) throw NO_SUCH_CHANNEL.create();
+
+        header(source, metrics.channelId().toString());
+        sendCounters(source, metrics.total());
+
+        feedback(source, TextOps.withFormatting("By message class:", Formatting.GRAY));
+        metrics.byMessageClass().entrySet().stream()
+                .sorted(Map.Entry.comparingByValue(BY_TRAFFIC))
+                .forEach(entry -> {
+                    feedback(source, TextOps.withColor("-> §" + entry.getKey().getSimpleName(), TextOps.color(Formatting.GRAY), OwoDebugCommands.KEY_BLUE));
+                    sendCounters(source, entry.getValue());
+                });
+
+        feedback(source, TextOps.withFormatting("By player:", Formatting.GRAY));
+        metrics.byPlayer().entrySet().stream()
+                .sorted(Map.Entry.comparingByValue(BY_MESSAGES))
+                .forEach(entry -> {
+                    feedback(source, TextOps.withColor("-> §" + playerName(source, entry.getKey()), TextOps.color(Formatting.GRAY), OwoDebugCommands.KEY_BLUE));
+                    sendPlayerCounters(source, entry.getValue());
+                });
+
+        return metrics.byMessageClass().size();
+    }
+
+    private static int executePlayer(CommandContext<ServerCommandSource> context) throws CommandSyntaxException {
+        var source = context.getSource();
+        var player = EntityArgumentType.getPlayer(context, "player");
+
+        header(source, player.getName().getString());
+
+        int channelCount = 0;
+        for (var metrics : NetworkMetrics.byChannel().values()) {
+            var counters = metrics.byPlayer().get(player.getUuid());
+            if (counters == null) continue;
+
+            feedback(source, TextOps.withColor("-> §" + metrics.channelId(), TextOps.color(Formatting.GRAY), OwoDebugCommands.KEY_BLUE));
+            sendPlayerCounters(source, counters);
+            channelCount++;
+        }
+
+        return channelCount;
+    }
+
+    private static int executeReset(CommandContext<ServerCommandSource> context) {
+        NetworkMetrics.resetAll();
+        context.getSource().sendFeedback(() -> TextOps.concat(Owo.PREFIX, Text.literal("network statistics reset")), false);
+        return 0;
+    }
+
+    private static void sendCounters(ServerCommandSource source, NetworkMetrics.Counters counters) {
+        feedback(source, TextOps.withColor("   sent: §" + counters.messagesSent() + " §messages, §" + formatBytes(counters.bytesSent()) + " §in §" + formatNanos(counters.encodeNanos()),
+                TextOps.color(Formatting.GRAY), OwoDebugCommands.VALUE_BLUE, TextOps.color(Formatting.GRAY), OwoDebugCommands.VALUE_BLUE, TextOps.color(Formatting.GRAY), OwoDebugCommands.VALUE_BLUE));
+        feedback(source, TextOps.withColor("   received: §" + counters.messagesReceived() + " §messages, §" + formatBytes(counters.bytesReceived()) + " §in §" + formatNanos(counters.decodeNanos()),
+                TextOps.color(Formatting.GRAY), OwoDebugCommands.VALUE_BLUE, TextOps.color(Formatting.GRAY), OwoDebugCommands.VALUE_BLUE, TextOps.color(Formatting.GRAY), OwoDebugCommands.VALUE_BLUE));
+        feedback(source, TextOps.withColor("   handlers: §" + formatNanos(counters.handlerNanos()) + "§, dropped: §" + counters.messagesDropped() + "§, rate-limited: §" + counters.messagesRateLimited(),
+                TextOps.color(Formatting.GRAY), OwoDebugCommands.VALUE_BLUE, TextOps.color(Formatting.GRAY), OwoDebugCommands.VALUE_BLUE, TextOps.color(Formatting.GRAY), OwoDebugCommands.VALUE_BLUE));
+    }
+
+    private static void sendPlayerCounters(ServerCommandSource source, NetworkMetrics.Counters counters) {
+        feedback(source, TextOps.withColor("   sent: §" + counters.messagesSent() + " §messages, §" + formatBytes(counters.bytesSent()),
+                TextOps.color(Formatting.GRAY), OwoDebugCommands.VALUE_BLUE, TextOps.color(Formatting.GRAY), OwoDebugCommands.VALUE_BLUE));
+        feedback(source, TextOps.withColor("   received: §" + counters.messagesReceived() + " §messages, §" + formatBytes(counters.bytesReceived()),
+                TextOps.color(Formatting.GRAY), OwoDebugCommands.VALUE_BLUE, TextOps.color(Formatting.GRAY), OwoDebugCommands.VALUE_BLUE));
+        feedback(source, TextOps.withColor("   handlers: §" + formatNanos(counters.handlerNanos()) + "§, rate-limited: §" + counters.messagesRateLimited(),
+                TextOps.color(Formatting.GRAY), OwoDebugCommands.VALUE_BLUE, TextOps.color(Formatting.GRAY), OwoDebugCommands.VALUE_BLUE));
+    }
+
+    private static String playerName(ServerCommandSource source, UUID uuid) {
+        var player = source.getServer().getPlayerManager().getPlayer(uuid);
+        return player != null ? player.getName().getString() : uuid.toString();
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes < 1024) return bytes + " B";
+        if (bytes < 1024 * 1024) return String.format("%.1f KiB", bytes / 1024d);
+        return String.format("%.1f MiB", bytes / (1024d * 1024d));
+    }
+
+    private static String formatNanos(long nanos) {
+        return String.format("%.2f ms", nanos / 1_000_000d);
+    }
+
+    private static void header(ServerCommandSource source, String name) {
+        feedback(source, TextOps.withColor("---[§ " + name + " §]---",
+                TextOps.color(Formatting.GRAY), OwoDebugCommands.GENERAL_PURPLE, TextOps.color(Formatting.GRAY)));
+    }
+
+    private static void feedback(ServerCommandSource source, Text message) {
+        source.sendFeedback(() -> message, false);
+    }
+}
@@ -137,6 +137,7 @@ public class OwoDebugCommands {
             MakeLootContainerCommand.register(dispatcher, registryAccess);
             DumpdataCommand.register(dispatcher);
             HealCommand.register(dispatcher);
+            NetstatsCommand.register(dispatcher);
 
             if (FabricLoader.getInstance().isModLoaded("cardinal-components-base")) {
                 CcaDataCommand.register(dispatcher);
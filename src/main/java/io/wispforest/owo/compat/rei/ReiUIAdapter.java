@@ -101,9 +101,7 @@ public class ReiUIAdapter<T extends ParentComponent> extends Widget {
     public void render(DrawContext context, int mouseX, int mouseY, float partialTicks) {
         ScissorStack.push(this.adapter.x(), this.adapter.y(), this.adapter.width(), this.adapter.height(), context);
         this.adapter.render(context, mouseX, mouseY, partialTicks);
-        ScissorStack.pop();
-
-        context.draw();
+        ScissorStack.pop(context);
     }
 
     @Override
@@ -0,0 +1,229 @@
+package io.wispforest.owo.config;
+
+import io.netty.buffer.Unpooled;
+import io.wispforest.endec.Endec;
+import io.wispforest.endec.SerializationContext;
+import io.wispforest.endec.annotations.NullableComponent;
+import io.wispforest.endec.format.bytebuf.ByteBufDeserializer;
+import io.wispforest.endec.format.bytebuf.ByteBufSerializer;
+import io.wispforest.owo.Owo;
+import net.fabricmc.loader.api.FabricLoader;
+import net.minecraft.network.encoding.VarInts;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * A config backend which stores each option as the binary encoding of
+ * its endec, which is far cheaper to read than JSON5 for large configs
+ * <p>
+ * Every stored option is tagged with its key and a hash of its type's structure. Options which are
+ * missing from the binary file or whose type changed since it was written, as well as
+ * edits made to the JSON5 export written alongside the binary file, cause the config to be
+ * loaded from the export instead - after which the binary file is rewritten
+ * <p>
+ * Should any option of the config not have an endec, this backend behaves
+ * exactly like {@link Json5ConfigStorage}
+ */
+public class BinaryConfigStorage extends Json5ConfigStorage {
+
+    private static final int MAGIC = 0x6F776F63; // 'owoc'
+    private static final int FORMAT_VERSION = 1;
+
+    private boolean endecsResolved = false;
+    private @Nullable Map<Option.Key, Endec<Object>> endecs = null;
+
+    public BinaryConfigStorage(ConfigWrapper<?> config) {
+        super(config);
+    }
+
+    /**
+     * @return The location of the binary file, next to the JSON5 export
+     */
+    public Path binaryLocation() {
+        return FabricLoader.getInstance().getConfigDir().resolve(this.config.name + ".bin");
+    }
+
+    @Override
+    public void save() throws IOException {
+        super.save();
+        this.writeBinary();
+    }
+
+    @Override
+    public boolean load() throws IOException {
+        var binary = this.binaryLocation();
+        var export = this.fileLocation();
+
+        boolean exportEdited = Files.exists(export) && (!Files.exists(binary) || Files.getLastModifiedTime(export).compareTo(Files.getLastModifiedTime(binary)) > 0);
+        if (exportEdited || this.endecs() == null || !Files.exists(binary) || !this.readBinary(binary)) {
+            return this.loadExport();
+        }
+
+        return true;
+    }
+
+    private boolean loadExport() throws IOException {
+        if (!super.load()) return false;
+
+        this.writeBinary();
+        return true;
+    }
+
+    // ---
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private boolean readBinary(Path binary) throws IOException {
+        var buffer = Unpooled.wrappedBuffer(Files.readAllBytes(binary));
+        var ctx = SerializationContext.empty();
+
+        try {
+            if (buffer.readInt() != MAGIC || VarInts.read(buffer) != FORMAT_VERSION) return false;
+
+            var deserializer = ByteBufDeserializer.of(buffer);
+            int optionCount = VarInts.read(buffer);
+
+            var storedOptions = new HashMap<String, StoredOption>(optionCount);
+            for (int i = 0; i < optionCount; i++) {
+                var key = deserializer.readString(ctx);
+                int schemaHash = buffer.readInt();
+                int length = buffer.readInt();
+
+                storedOptions.put(key, new StoredOption(schemaHash, buffer.readerIndex(), length));
+                buffer.skipBytes(length);
+            }
+
+            var values = new LinkedHashMap<Option, Object>();
+            for (var option : this.config.options.values()) {
+                var stored = storedOptions.get(option.key().asString());
+                if (stored == null || stored.schemaHash != schemaHash(option)) return false;
+
+                var value = this.endecs.get(option.key()).decode(ctx, ByteBufDeserializer.of(buffer.slice(stored.index, stored.length)));
+                values.put(option, value);
+            }
+
+            values.forEach((option, value) -> {
+                if (!option.verifyConstraint(value)) return;
+                option.set(value == null ? option.defaultValue() : value);
+            });
+
+            return true;
+        } catch (RuntimeException e) {
+            Owo.LOGGER.warn("Could not read binary config {}, loading JSON5 export instead", this.config.name, e);
+            return false;
+        }
+    }
+
+    private void writeBinary() throws IOException {
+        var binary = this.binaryLocation();
+
+        var endecs = this.endecs();
+        if (endecs == null) {
+            Files.deleteIfExists(binary);
+            return;
+        }
+
+        var buffer = Unpooled.buffer();
+        var serializer = ByteBufSerializer.of(buffer);
+        var ctx = SerializationContext.empty();
+
+        try {
+            buffer.writeInt(MAGIC);
+            VarInts.write(buffer, FORMAT_VERSION);
+            VarInts.write(buffer, this.config.options.size());
+
+            for (var option : this.config.options.values()) {
+                serializer.writeString(ctx, option.key().asString());
+                buffer.writeInt(schemaHash(option));
+
+                int lengthIndex = buffer.writerIndex();
+                buffer.writeInt(0);
+                endecs.get(option.key()).encode(ctx, serializer, option.backingField().getValue());
+                buffer.setInt(lengthIndex, buffer.writerIndex() - lengthIndex - Integer.BYTES);
+            }
+
+            var temp = binary.resolveSibling(binary.getFileName() + ".tmp");
+            try (var output = Files.newOutputStream(temp)) {
+                buffer.readBytes(output, buffer.readableBytes());
+            }
+
+            Files.move(temp, binary, StandardCopyOption.REPLACE_EXISTING);
+        } catch (RuntimeException e) {
+            Owo.LOGGER.warn("Could not write binary config {}, only the JSON5 export was saved", this.config.name, e);
+            Files.deleteIfExists(binary);
+        } finally {
+            buffer.release();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private @Nullable Map<Option.Key, Endec<Object>> endecs() {
+        if (this.endecsResolved) return this.endecs;
+        this.endecsResolved = true;
+
+        var endecs = new HashMap<Option.Key, Endec<Object>>();
+        for (var option : this.config.options.values()) {
+            try {
+                endecs.put(option.key(), (Endec<Object>) this.config.builder.get(option.backingField().field().getGenericType()));
+            } catch (RuntimeException e) {
+                Owo.LOGGER.warn("Option {} of config {} has no endec, storing the config as JSON5 only", option.key().asString(), this.config.name, e);
+                return null;
+            }
+        }
+
+        return this.endecs = endecs;
+    }
+
+    private static int schemaHash(Option<?> option) {
+        return schemaHash(option.backingField().field().getGenericType(), new HashSet<>());
+    }
+
+    /**
+     * Hash the structure of the given type as far as it affects the binary encoding -
+     * the components of records and the constants of enums are included, so that
+     * changing either invalidates the stored option even though its type name stayed the same
+     */
+    private static int schemaHash(Type type, Set<Class<?>> enclosing) {
+        if (type instanceof ParameterizedType parameterized) {
+            int hash = schemaHash(parameterized.getRawType(), enclosing);
+            for (var argument : parameterized.getActualTypeArguments()) {
+                hash = 31 * hash + schemaHash(argument, enclosing);
+            }
+
+            return hash;
+        }
+
+        if (type instanceof GenericArrayType array) return 31 * schemaHash(array.getGenericComponentType(), enclosing) + '[';
+        if (!(type instanceof Class<?> clazz)) return type.getTypeName().hashCode();
+        if (clazz.isArray()) return 31 * schemaHash(clazz.getComponentType(), enclosing) + '[';
+
+        int hash = clazz.getName().hashCode();
+
+        // a record which contains itself is only described once
+        if (!enclosing.add(clazz)) return hash;
+
+        if (clazz.isRecord()) {
+            for (var component : clazz.getRecordComponents()) {
+                hash = 31 * hash + component.getName().hashCode();
+                hash = 31 * hash + Boolean.hashCode(component.isAnnotationPresent(NullableComponent.class));
+                hash = 31 * hash + schemaHash(component.getGenericType(), enclosing);
+            }
+        } else if (clazz.isEnum()) {
+            for (var constant : clazz.getEnumConstants()) {
+                hash = 31 * hash + ((Enum<?>) constant).name().hashCode();
+            }
+        }
+
+        enclosing.remove(clazz);
+        return hash;
+    }
+
+    private record StoredOption(int schemaHash, int index, int length) {}
+}
@@ -0,0 +1,58 @@
+package io.wispforest.owo.config;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.function.Function;
+
+/**
+ * The backend through which a {@link ConfigWrapper} persists its options.
+ * Which backend a config uses is selected by annotating its model class
+ * with {@link io.wispforest.owo.config.annotation.Storage}
+ */
+public interface ConfigStorage {
+
+    /**
+     * Write the current value of all options in the config to disk
+     */
+    void save() throws IOException;
+
+    /**
+     * Read the values of all options in the config from disk
+     *
+     * @return {@code false} if there is no stored data to load,
+     * in which case the config will be saved instead
+     */
+    boolean load() throws IOException;
+
+    /**
+     * @return The file this backend stores the config in, which
+     * users are expected to edit by hand
+     */
+    Path fileLocation();
+
+    enum Format {
+        /**
+         * Store the config as a JSON5 file, written and read through Jankson
+         */
+        JSON5(Json5ConfigStorage::new),
+
+        /**
+         * Store the config in a compact binary file encoded through the endec of each
+         * option, for large configs which take long to parse. A JSON5 export of the config
+         * is written alongside it - should that export be edited, it is loaded instead
+         *
+         * @see BinaryConfigStorage
+         */
+        BINARY(BinaryConfigStorage::new);
+
+        private final Function<ConfigWrapper<?>, ConfigStorage> factory;
+
+        Format(Function<ConfigWrapper<?>, ConfigStorage> factory) {
+            this.factory = factory;
+        }
+
+        public ConfigStorage create(ConfigWrapper<?> config) {
+            return this.factory.apply(config);
+        }
+    }
+}
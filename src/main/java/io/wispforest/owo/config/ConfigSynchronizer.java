@@ -1,6 +1,8 @@
 package io.wispforest.owo.config;
 
 import com.google.common.collect.HashMultimap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import io.wispforest.endec.impl.StructEndecBuilder;
 import io.wispforest.owo.Owo;
 import io.wispforest.owo.mixin.ServerCommonNetworkHandlerAccessor;
@@ -13,6 +15,7 @@ import net.fabricmc.api.Environment;
 import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
 import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
 import net.fabricmc.fabric.api.event.Event;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
 import net.fabricmc.fabric.api.networking.v1.PacketByteBufs;
 import net.fabricmc.fabric.api.networking.v1.PayloadTypeRegistry;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
@@ -20,7 +23,9 @@ import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
 import net.fabricmc.loader.api.FabricLoader;
 import net.minecraft.network.ClientConnection;
 import net.minecraft.network.PacketByteBuf;
+import net.minecraft.network.codec.PacketCodec;
 import net.minecraft.network.packet.CustomPayload;
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.text.MutableText;
 import net.minecraft.text.Text;
@@ -29,22 +34,82 @@ import net.minecraft.util.Identifier;
 import net.minecraft.util.Pair;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.WeakHashMap;
+import java.util.*;
 import java.util.function.BiConsumer;
 
 public class ConfigSynchronizer {
 
     public static final Identifier CONFIG_SYNC_CHANNEL = Identifier.of("owo", "config_sync");
+    public static final Identifier CONFIG_DELTA_CHANNEL = Identifier.of("owo", "config_delta");
 
     private static final Map<ClientConnection, Map<String, Map<Option.Key, Object>>> CLIENT_OPTION_STORAGE = new WeakHashMap<>();
 
     private static final Map<String, ConfigWrapper<?>> KNOWN_CONFIGS = new HashMap<>();
     private static final MutableText PREFIX = TextOps.concat(Owo.PREFIX, Text.of("§cunrecoverable config mismatch\n\n"));
 
+    private static @Nullable ConfigSyncPacket serverSnapshot = null;
+    private static int snapshotGeneration = 0;
+
+    private static @Nullable List<Option<?>> serverOptionIndex = null;
+    private static final Set<Option<?>> CHANGED_OPTIONS = new LinkedHashSet<>();
+
+    private static @Nullable List<@Nullable Option<?>> receivedOptionIndex = null;
+
     static void register(ConfigWrapper<?> config) {
         KNOWN_CONFIGS.put(config.name(), config);
+        config.synced = true;
+
+        config.forEachOption(option -> {
+            if (option.syncMode().isNone()) return;
+
+            option.observe(value -> {
+                invalidateSnapshot();
+                if (option.syncMode() != Option.SyncMode.OVERRIDE_CLIENT) return;
+
+                synchronized (CHANGED_OPTIONS) {
+                    CHANGED_OPTIONS.add(option);
+                }
+            });
+        });
+    }
+
+    /**
+     * Discard the cached encoding of the server's config values, to be
+     * rebuilt the next time a player joins. Called whenever a synced option changes,
+     * as well as when a synced config is saved - which also catches collection
+     * options that were modified in place and thus never notified their observers
+     */
+    static synchronized void invalidateSnapshot() {
+        serverSnapshot = null;
+        snapshotGeneration++;
+    }
+
+    /**
+     * @return The server's config values, along with their encoded form which
+     * is copied into the packet of every joining player. Rebuilt only if an
+     * option changed since the last player joined
+     */
+    private static ConfigSyncPacket serverSnapshot() {
+        int generation;
+        synchronized (ConfigSynchronizer.class) {
+            if (serverSnapshot != null) return serverSnapshot;
+            generation = snapshotGeneration;
+        }
+
+        var packet = toPacket(Option.SyncMode.OVERRIDE_CLIENT);
+
+        // heap-backed, so that snapshots which are replaced
+        // while still queued for sending need no releasing
+        var encoded = new PacketByteBuf(Unpooled.buffer());
+        ConfigSyncPacket.CODEC.encode(encoded, packet);
+
+        var snapshot = new ConfigSyncPacket(packet.configs(), packet.optionIndex(), encoded);
+        synchronized (ConfigSynchronizer.class) {
+            // an option changed while encoding, don't cache the now outdated snapshot
+            if (snapshotGeneration == generation) serverSnapshot = snapshot;
+        }
+
+        return snapshot;
     }
 
     /**
@@ -73,6 +138,49 @@ public class ConfigSynchronizer {
         return getClientOptions(player, config.name());
     }
 
+    /**
+     * @return All options which override client values, in the order
+     * by which they are referred to in {@link ConfigDeltaPacket}s
+     */
+    private static synchronized List<Option<?>> serverOptionIndex() {
+        if (serverOptionIndex == null) {
+            var index = new ArrayList<Option<?>>();
+            KNOWN_CONFIGS.values().forEach(config -> config.forEachOption(option -> {
+                if (option.syncMode() == Option.SyncMode.OVERRIDE_CLIENT) index.add(option);
+            }));
+
+            serverOptionIndex = index;
+        }
+
+        return serverOptionIndex;
+    }
+
+    private static void sendChangedOptions(MinecraftServer server) {
+        List<Option<?>> changedOptions;
+        synchronized (CHANGED_OPTIONS) {
+            if (CHANGED_OPTIONS.isEmpty()) return;
+
+            changedOptions = List.copyOf(CHANGED_OPTIONS);
+            CHANGED_OPTIONS.clear();
+        }
+
+        var optionIndex = serverOptionIndex();
+        var deltas = new ArrayList<OptionDelta>(changedOptions.size());
+
+        for (var option : changedOptions) {
+            var valueBuf = PacketByteBufs.create();
+            option.write(valueBuf);
+
+            deltas.add(new OptionDelta(optionIndex.indexOf(option), valueBuf));
+        }
+
+        var packet = new ConfigDeltaPacket(deltas);
+        for (var player : server.getPlayerManager().getPlayerList()) {
+            if (!ServerPlayNetworking.canSend(player, ConfigDeltaPacket.ID)) continue;
+            ServerPlayNetworking.send(player, packet);
+        }
+    }
+
     private static ConfigSyncPacket toPacket(Option.SyncMode targetMode) {
         Map<String, ConfigEntry> configs = new HashMap<>();
 
@@ -91,7 +199,13 @@ public class ConfigSynchronizer {
             configs.put(configName, entry);
         });
 
-        return new ConfigSyncPacket(configs);
+        if (targetMode != Option.SyncMode.OVERRIDE_CLIENT) return new ConfigSyncPacket(configs, List.of(), null);
+
+        var optionIndex = serverOptionIndex().stream()
+                .map(option -> new IndexedOption(option.configName(), option.key().asString()))
+                .toList();
+
+        return new ConfigSyncPacket(configs, optionIndex, null);
     }
 
     private static void read(ConfigSyncPacket packet, BiConsumer<Option<?>, PacketByteBuf> optionConsumer) {
@@ -158,10 +272,35 @@ public class ConfigSynchronizer {
             }
         }
 
+        var optionIndex = new ArrayList<@Nullable Option<?>>(payload.optionIndex().size());
+        for (var indexedOption : payload.optionIndex()) {
+            var config = KNOWN_CONFIGS.get(indexedOption.config());
+            optionIndex.add(config != null ? config.optionForKey(new Option.Key(indexedOption.option())) : null);
+        }
+
+        receivedOptionIndex = optionIndex;
+
         Owo.LOGGER.info("Responding with client values");
         context.responseSender().sendPacket(toPacket(Option.SyncMode.INFORM_SERVER));
     }
 
+    @Environment(EnvType.CLIENT)
+    private static void applyClientDelta(ConfigDeltaPacket payload, ClientPlayNetworking.Context context) {
+        if (context.client().isIntegratedServerRunning() && context.client().getServer().isSingleplayer()) return;
+
+        var optionIndex = receivedOptionIndex;
+        if (optionIndex == null) return;
+
+        for (var delta : payload.options()) {
+            var option = delta.index() >= 0 && delta.index() < optionIndex.size() ? optionIndex.get(delta.index()) : null;
+            if (option == null) continue;
+
+            if (option.read(delta.value()) != null) {
+                Owo.LOGGER.warn("Server changed option {} in config '{}', but it requires a restart and could not be updated", option.key().asString(), option.configName());
+            }
+        }
+    }
+
     private static void applyServer(ConfigSyncPacket payload, ServerPlayNetworking.Context context) {
         Owo.LOGGER.info("Receiving client config");
         var connection = ((ServerCommonNetworkHandlerAccessor) context.player().networkHandler).owo$getConnection();
@@ -172,19 +311,78 @@ public class ConfigSynchronizer {
         });
     }
 
-    private record ConfigSyncPacket(Map<String, ConfigEntry> configs) implements CustomPayload {
+    /**
+     * @param encoded The already-encoded form of this packet, shared between all
+     *                players it is sent to. {@code null} unless this packet is
+     *                the {@linkplain #serverSnapshot() server snapshot}
+     */
+    private record ConfigSyncPacket(Map<String, ConfigEntry> configs, List<IndexedOption> optionIndex, @Nullable ByteBuf encoded) implements CustomPayload {
         public static final Id<ConfigSyncPacket> ID = new Id<>(CONFIG_SYNC_CHANNEL);
         public static final Endec<ConfigSyncPacket> ENDEC = StructEndecBuilder.of(
                 ConfigEntry.ENDEC.mapOf().fieldOf("configs", ConfigSyncPacket::configs),
+                IndexedOption.ENDEC.listOf().fieldOf("option_index", ConfigSyncPacket::optionIndex),
                 ConfigSyncPacket::new
         );
 
+        private static final PacketCodec<PacketByteBuf, ConfigSyncPacket> ENDEC_CODEC = CodecUtils.toPacketCodec(ENDEC);
+        public static final PacketCodec<PacketByteBuf, ConfigSyncPacket> CODEC = PacketCodec.of(
+                (packet, buf) -> {
+                    if (packet.encoded != null) {
+                        buf.writeBytes(packet.encoded, packet.encoded.readerIndex(), packet.encoded.readableBytes());
+                    } else {
+                        ENDEC_CODEC.encode(buf, packet);
+                    }
+                },
+                ENDEC_CODEC::decode
+        );
+
+        private ConfigSyncPacket(Map<String, ConfigEntry> configs, List<IndexedOption> optionIndex) {
+            this(configs, optionIndex, null);
+        }
+
         @Override
         public Id<? extends CustomPayload> getId() {
             return ID;
         }
     }
 
+    /**
+     * An entry of the option index agreed upon during config synchronization,
+     * which allows {@link ConfigDeltaPacket}s to refer to options by number
+     */
+    private record IndexedOption(String config, String option) {
+        public static final Endec<IndexedOption> ENDEC = StructEndecBuilder.of(
+                Endec.STRING.fieldOf("config", IndexedOption::config),
+                Endec.STRING.fieldOf("option", IndexedOption::option),
+                IndexedOption::new
+        );
+    }
+
+    /**
+     * The new values of all options which overrode client values and
+     * changed during the last tick, sent to all connected players
+     */
+    private record ConfigDeltaPacket(List<OptionDelta> options) implements CustomPayload {
+        public static final Id<ConfigDeltaPacket> ID = new Id<>(CONFIG_DELTA_CHANNEL);
+        public static final Endec<ConfigDeltaPacket> ENDEC = StructEndecBuilder.of(
+                OptionDelta.ENDEC.listOf().fieldOf("options", ConfigDeltaPacket::options),
+                ConfigDeltaPacket::new
+        );
+
+        @Override
+        public Id<? extends CustomPayload> getId() {
+            return ID;
+        }
+    }
+
+    private record OptionDelta(int index, PacketByteBuf value) {
+        public static final Endec<OptionDelta> ENDEC = StructEndecBuilder.of(
+                Endec.VAR_INT.fieldOf("index", OptionDelta::index),
+                MinecraftEndecs.PACKET_BYTE_BUF.fieldOf("value", OptionDelta::value),
+                OptionDelta::new
+        );
+    }
+
     private record ConfigEntry(Map<String, PacketByteBuf> options) {
         public static final Endec<ConfigEntry> ENDEC = StructEndecBuilder.of(
                 MinecraftEndecs.PACKET_BYTE_BUF.mapOf().fieldOf("options", ConfigEntry::options),
@@ -193,23 +391,26 @@ public class ConfigSynchronizer {
     }
 
     static {
-        var packetCodec = CodecUtils.toPacketCodec(ConfigSyncPacket.ENDEC);
-
-        PayloadTypeRegistry.playS2C().register(ConfigSyncPacket.ID, packetCodec);
-        PayloadTypeRegistry.playC2S().register(ConfigSyncPacket.ID, packetCodec);
+        PayloadTypeRegistry.playS2C().register(ConfigSyncPacket.ID, ConfigSyncPacket.CODEC);
+        PayloadTypeRegistry.playC2S().register(ConfigSyncPacket.ID, ConfigSyncPacket.CODEC);
+        PayloadTypeRegistry.playS2C().register(ConfigDeltaPacket.ID, CodecUtils.toPacketCodec(ConfigDeltaPacket.ENDEC));
 
         var earlyPhase = Identifier.of("owo", "early");
         ServerPlayConnectionEvents.JOIN.addPhaseOrdering(earlyPhase, Event.DEFAULT_PHASE);
         ServerPlayConnectionEvents.JOIN.register(earlyPhase, (handler, sender, server) -> {
             Owo.LOGGER.info("Sending server config values to client");
 
-            sender.sendPacket(toPacket(Option.SyncMode.OVERRIDE_CLIENT));
+            sender.sendPacket(serverSnapshot());
         });
 
+        ServerTickEvents.END_SERVER_TICK.register(ConfigSynchronizer::sendChangedOptions);
+
         if (FabricLoader.getInstance().getEnvironmentType() == EnvType.CLIENT) {
             ClientPlayNetworking.registerGlobalReceiver(ConfigSyncPacket.ID, ConfigSynchronizer::applyClient);
+            ClientPlayNetworking.registerGlobalReceiver(ConfigDeltaPacket.ID, ConfigSynchronizer::applyClientDelta);
 
             ClientPlayConnectionEvents.DISCONNECT.register((handler, client) -> {
+                receivedOptionIndex = null;
                 KNOWN_CONFIGS.forEach((name, config) -> config.forEachOption(Option::reattach));
             });
         }
@@ -2,12 +2,7 @@ package io.wispforest.owo.config;
 
 import blue.endless.jankson.Jankson;
 import blue.endless.jankson.JsonElement;
-import blue.endless.jankson.JsonGrammar;
 import blue.endless.jankson.JsonPrimitive;
-import blue.endless.jankson.api.DeserializationException;
-import blue.endless.jankson.api.SyntaxError;
-import blue.endless.jankson.impl.POJODeserializer;
-import blue.endless.jankson.magic.TypeMagic;
 import io.wispforest.endec.Endec;
 import io.wispforest.endec.format.jankson.JanksonDeserializer;
 import io.wispforest.endec.format.jankson.JanksonSerializer;
@@ -31,8 +26,6 @@ import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
 import java.util.function.Consumer;
@@ -58,12 +51,17 @@ public abstract class ConfigWrapper<C> {
     protected final C instance;
 
     protected boolean loading = false;
+
+    // set by ConfigSynchronizer.register, so that configs which
+    // never sync don't load the synchronizer when saving
+    boolean synced = false;
     protected final Jankson jankson;
 
     @SuppressWarnings("rawtypes") protected final Map<Option.Key, Option> options = new LinkedHashMap<>();
     @SuppressWarnings("rawtypes") protected final Map<Option.Key, Option> optionsView = Collections.unmodifiableMap(options);
 
     protected final ReflectiveEndecBuilder builder;
+    protected final ConfigStorage storage;
 
     @Deprecated
     protected ConfigWrapper(Class<C> clazz, Consumer<Jankson.Builder> janksonBuilder) {
@@ -121,6 +119,10 @@ public abstract class ConfigWrapper<C> {
         } catch (IllegalAccessException | NoSuchMethodException e) {
             throw new RuntimeException("Failed to initialize config " + this.name, e);
         }
+
+        this.storage = clazz.isAnnotationPresent(Storage.class)
+                ? clazz.getAnnotation(Storage.class).value().create(this)
+                : ConfigStorage.Format.JSON5.create(this);
     }
 
     /**
@@ -130,70 +132,33 @@ public abstract class ConfigWrapper<C> {
         if (this.loading) return;
 
         try {
-            this.fileLocation().getParent().toFile().mkdirs();
-            Files.writeString(this.fileLocation(), this.jankson.toJson(this.instance).toJson(JsonGrammar.JANKSON), StandardCharsets.UTF_8);
+            this.storage.save();
         } catch (IOException e) {
             Owo.LOGGER.warn("Could not save config {}", this.name, e);
         }
+
+        // collection options modified in place never notify their
+        // observers, saving is the only point at which those changes show
+        if (this.synced) ConfigSynchronizer.invalidateSnapshot();
     }
 
     /**
      * Load the config represented by this wrapper from
      * its associated file, or create it if it does not exist
      */
-    @SuppressWarnings({"unchecked"})
     public void load() {
-        if (!Files.exists(this.fileLocation())) {
-            this.save();
-            return;
-        }
+        boolean loaded = true;
 
         try {
             this.loading = true;
-            var configObject = this.jankson.load(Files.readString(this.fileLocation(), StandardCharsets.UTF_8));
-
-            for (var option : this.options.values()) {
-                Object newValue;
-
-                final var clazz = option.clazz();
-                final var element = configObject.recursiveGet(JsonElement.class, option.key().asString());
-                if (element == null) {
-                    option.set(option.defaultValue());
-                    continue;
-                }
-
-                if (Map.class.isAssignableFrom(clazz)) {
-                    var field = option.backingField().field();
-
-                    newValue = TypeMagic.createAndCast(clazz);
-                    POJODeserializer.unpackMap(
-                            (Map<Object, Object>) newValue,
-                            ReflectionUtils.getTypeArgument(field.getGenericType(), 0),
-                            ReflectionUtils.getTypeArgument(field.getGenericType(), 1),
-                            element,
-                            this.jankson.getMarshaller()
-                    );
-                } else if (List.class.isAssignableFrom(clazz) || Set.class.isAssignableFrom(clazz)) {
-                    newValue = TypeMagic.createAndCast(clazz);
-                    POJODeserializer.unpackCollection(
-                            (Collection<Object>) newValue,
-                            ReflectionUtils.getTypeArgument(option.backingField().field().getGenericType(), 0),
-                            element,
-                            this.jankson.getMarshaller()
-                    );
-                } else {
-                    newValue = configObject.getMarshaller().marshall(clazz, element);
-                }
-
-                if (!option.verifyConstraint(newValue)) continue;
-
-                option.set(newValue == null ? option.defaultValue() : newValue);
-            }
-        } catch (IOException | SyntaxError | DeserializationException e) {
+            loaded = this.storage.load();
+        } catch (IOException e) {
             Owo.LOGGER.warn("Could not load config {}", this.name, e);
         } finally {
             this.loading = false;
         }
+
+        if (!loaded) this.save();
     }
 
     /**
@@ -233,7 +198,14 @@ public abstract class ConfigWrapper<C> {
      * @return The location to which this config is saved
      */
     public Path fileLocation() {
-        return FabricLoader.getInstance().getConfigDir().resolve(this.name + ".json5");
+        return this.storage.fileLocation();
+    }
+
+    /**
+     * @return The backend through which this config is saved and loaded
+     */
+    public ConfigStorage storage() {
+        return this.storage;
     }
 
     /**
@@ -0,0 +1,92 @@
+package io.wispforest.owo.config;
+
+import blue.endless.jankson.JsonElement;
+import blue.endless.jankson.JsonGrammar;
+import blue.endless.jankson.api.DeserializationException;
+import blue.endless.jankson.api.SyntaxError;
+import blue.endless.jankson.impl.POJODeserializer;
+import blue.endless.jankson.magic.TypeMagic;
+import io.wispforest.owo.util.ReflectionUtils;
+import net.fabricmc.loader.api.FabricLoader;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * The default config backend, which stores the config as
+ * a JSON5 file that is written and read through Jankson
+ */
+public class Json5ConfigStorage implements ConfigStorage {
+
+    protected final ConfigWrapper<?> config;
+
+    public Json5ConfigStorage(ConfigWrapper<?> config) {
+        this.config = config;
+    }
+
+    @Override
+    public void save() throws IOException {
+        this.fileLocation().getParent().toFile().mkdirs();
+        Files.writeString(this.fileLocation(), this.config.jankson.toJson(this.config.instance).toJson(JsonGrammar.JANKSON), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    @SuppressWarnings({"unchecked"})
+    public boolean load() throws IOException {
+        if (!Files.exists(this.fileLocation())) return false;
+
+        try {
+            var configObject = this.config.jankson.load(Files.readString(this.fileLocation(), StandardCharsets.UTF_8));
+
+            for (var option : this.config.options.values()) {
+                Object newValue;
+
+                final var clazz = option.clazz();
+                final var element = configObject.recursiveGet(JsonElement.class, option.key().asString());
+                if (element == null) {
+                    option.set(option.defaultValue());
+                    continue;
+                }
+
+                if (Map.class.isAssignableFrom(clazz)) {
+                    var field = option.backingField().field();
+
+                    newValue = TypeMagic.createAndCast(clazz);
+                    POJODeserializer.unpackMap(
+                            (Map<Object, Object>) newValue,
+                            ReflectionUtils.getTypeArgument(field.getGenericType(), 0),
+                            ReflectionUtils.getTypeArgument(field.getGenericType(), 1),
+                            element,
+                            this.config.jankson.getMarshaller()
+                    );
+                } else if (List.class.isAssignableFrom(clazz) || Set.class.isAssignableFrom(clazz)) {
+                    newValue = TypeMagic.createAndCast(clazz);
+                    POJODeserializer.unpackCollection(
+                            (Collection<Object>) newValue,
+                            ReflectionUtils.getTypeArgument(option.backingField().field().getGenericType(), 0),
+                            element,
+                            this.config.jankson.getMarshaller()
+                    );
+                } else {
+                    newValue = configObject.getMarshaller().marshall(clazz, element);
+                }
+
+                if (!option.verifyConstraint(newValue)) continue;
+
+                option.set(newValue == null ? option.defaultValue() : newValue);
+            }
+        } catch (SyntaxError | DeserializationException e) {
+            throw new IOException("Malformed config file " + this.fileLocation(), e);
+        }
+
+        return true;
+    }
+
+    @Override
+    public Path fileLocation() {
+        return FabricLoader.getInstance().getConfigDir().resolve(this.config.name + ".json5");
+    }
+}
@@ -0,0 +1,21 @@
+package io.wispforest.owo.config.annotation;
+
+import io.wispforest.owo.config.ConfigStorage;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Applied to a config model class to select the backend
+ * through which the config is saved and loaded. Configs
+ * without this annotation are stored as JSON5
+ *
+ * @see ConfigStorage.Format
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Storage {
+    ConfigStorage.Format value();
+}
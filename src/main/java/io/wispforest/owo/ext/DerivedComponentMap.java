@@ -1,18 +1,39 @@
 package io.wispforest.owo.ext;
 
+import io.wispforest.owo.mixin.ext.MergedComponentMapAccessor;
 import net.minecraft.component.ComponentChanges;
 import net.minecraft.component.ComponentMap;
 import net.minecraft.component.MergedComponentMap;
 import net.minecraft.component.ComponentType;
+import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @ApiStatus.Internal
 public class DerivedComponentMap implements ComponentMap {
+
+    private static final ClassValue<Boolean> DERIVES_COMPONENTS = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                return type.getMethod("deriveStackComponents", ComponentMap.class, ComponentChanges.Builder.class).getDeclaringClass() != OwoItem.class;
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        }
+    };
+
+    // for items which opt in through OwoItem#cacheDerivedComponents, derivation only
+    // depends on the components of the stack - so all stacks of such an item
+    // which carry no changes share the derived components
+    private static final Map<Item, ComponentChanges> DERIVED_DEFAULT_COMPONENTS = new ConcurrentHashMap<>();
+
     private final ComponentMap base;
     private final MergedComponentMap delegate;
 
@@ -29,11 +50,53 @@ public class DerivedComponentMap implements ComponentMap {
         }
     }
 
+    /**
+     * @return {@code true} if the given item overrides {@link OwoItem#deriveStackComponents(ComponentMap, ComponentChanges.Builder)},
+     * meaning that its stacks need a derived component map at all
+     */
+    public static boolean derivesComponents(Item item) {
+        return DERIVES_COMPONENTS.get(item.getClass());
+    }
+
+    /**
+     * Discard the derived components shared between stacks without changes
+     */
+    @ApiStatus.Internal
+    public static void clearCache() {
+        DERIVED_DEFAULT_COMPONENTS.clear();
+    }
+
     public void derive(ItemStack owner) {
+        if (!owner.getItem().cacheDerivedComponents()) {
+            delegate.setChanges(this.deriveFrom(owner));
+            return;
+        }
+
+        // the changes are checked through the accessor since ItemStack#getComponentChanges
+        // would make the stack's component map copy-on-write. Stacks with changes are
+        // not cached at all, hashing their changes costs about as much as deriving
+        var changes = ((MergedComponentMapAccessor) (Object) owner.getComponents()).owo$getChangedComponents();
+        if (!changes.isEmpty()) {
+            delegate.setChanges(this.deriveFrom(owner));
+            return;
+        }
+
+        // not computeIfAbsent, deriving may well create other stacks of the same item
+        var derived = DERIVED_DEFAULT_COMPONENTS.get(owner.getItem());
+        if (derived == null) {
+            derived = this.deriveFrom(owner);
+            DERIVED_DEFAULT_COMPONENTS.put(owner.getItem(), derived);
+        }
+
+        delegate.setChanges(derived);
+    }
+
+    private ComponentChanges deriveFrom(ItemStack owner) {
         delegate.setChanges(ComponentChanges.EMPTY);
+
         var builder = ComponentChanges.builder();
         owner.getItem().deriveStackComponents(owner.getComponents(), builder);
-        delegate.setChanges(builder.build());
+        return builder.build();
     }
 
     @Nullable
@@ -6,10 +6,26 @@ import org.jetbrains.annotations.ApiStatus;
 
 public interface OwoItem {
     /**
-     * Generates component-derived-components from the stack's components
+     * Generates component-derived-components from the stack's components.
+     * <p>
+     * Stacks of items which do not override this method skip
+     * component derivation entirely
      * @param source a map containing the item stack's non-derived components
      * @param target a builder for the derived component map
      */
     @ApiStatus.Experimental
     default void deriveStackComponents(ComponentMap source, ComponentChanges.Builder target) { }
+
+    /**
+     * Whether the components derived for stacks of this item which carry no component
+     * changes may be computed once and shared between all of them. Only return {@code true}
+     * if {@link #deriveStackComponents(ComponentMap, ComponentChanges.Builder)} depends
+     * on nothing but {@code source} - not on fields of the item or on configs
+     * <p>
+     * The shared result is discarded whenever a server starts or reloads its data packs
+     */
+    @ApiStatus.Experimental
+    default boolean cacheDerivedComponents() {
+        return false;
+    }
 }
@@ -1,16 +1,26 @@
 package io.wispforest.owo.mixin;
 
 import io.wispforest.owo.network.OwoClientConnectionExtension;
+import io.wispforest.owo.network.ServerboundRateLimiter;
+import io.wispforest.owo.serialization.IdentifierDictionary;
 import net.minecraft.network.ClientConnection;
 import net.minecraft.util.Identifier;
+import org.jetbrains.annotations.Nullable;
 import org.spongepowered.asm.mixin.Mixin;
 
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 
 @Mixin(ClientConnection.class)
 public class ClientConnectionMixin implements OwoClientConnectionExtension {
     private Set<Identifier> channels = Collections.emptySet();
+    private final Map<Identifier, ServerboundRateLimiter> rateLimiters = new HashMap<>();
+
+    // set on the game thread, read by the event loop while en-/decoding
+    private volatile @Nullable IdentifierDictionary encodingDictionary = null;
+    private volatile @Nullable IdentifierDictionary decodingDictionary = null;
 
     @Override
     public void owo$setChannelSet(Set<Identifier> channels) {
@@ -21,4 +31,29 @@ public class ClientConnectionMixin implements OwoClientConnectionExtension {
     public Set<Identifier> owo$getChannelSet() {
         return this.channels;
     }
+
+    @Override
+    public Map<Identifier, ServerboundRateLimiter> owo$getRateLimiters() {
+        return this.rateLimiters;
+    }
+
+    @Override
+    public void owo$setEncodingDictionary(@Nullable IdentifierDictionary dictionary) {
+        this.encodingDictionary = dictionary;
+    }
+
+    @Override
+    public @Nullable IdentifierDictionary owo$getEncodingDictionary() {
+        return this.encodingDictionary;
+    }
+
+    @Override
+    public void owo$setDecodingDictionary(@Nullable IdentifierDictionary dictionary) {
+        this.decodingDictionary = dictionary;
+    }
+
+    @Override
+    public @Nullable IdentifierDictionary owo$getDecodingDictionary() {
+        return this.decodingDictionary;
+    }
 }
@@ -0,0 +1,32 @@
+package io.wispforest.owo.mixin;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.wispforest.owo.network.ServerboundRateLimiter;
+import net.minecraft.network.ClientConnection;
+import net.minecraft.network.handler.DecoderHandler;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+import java.util.List;
+
+@Mixin(DecoderHandler.class)
+public class DecoderHandlerMixin {
+
+    @Unique
+    private ClientConnection owo$connection = null;
+
+    @Inject(method = "decode", at = @At("HEAD"))
+    private void captureConnection(ChannelHandlerContext context, ByteBuf buf, List<Object> objects, CallbackInfo ci) {
+        if (this.owo$connection == null) this.owo$connection = context.pipeline().get(ClientConnection.class);
+        ServerboundRateLimiter.DECODING_CONNECTION.set(this.owo$connection);
+    }
+
+    @Inject(method = "decode", at = @At("RETURN"))
+    private void releaseConnection(ChannelHandlerContext context, ByteBuf buf, List<Object> objects, CallbackInfo ci) {
+        ServerboundRateLimiter.DECODING_CONNECTION.remove();
+    }
+}
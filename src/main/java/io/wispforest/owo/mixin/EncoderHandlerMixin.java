@@ -0,0 +1,31 @@
+package io.wispforest.owo.mixin;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.wispforest.owo.serialization.IdentifierDictionary;
+import net.minecraft.network.ClientConnection;
+import net.minecraft.network.handler.EncoderHandler;
+import net.minecraft.network.packet.Packet;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(EncoderHandler.class)
+public class EncoderHandlerMixin {
+
+    @Unique
+    private ClientConnection owo$connection = null;
+
+    @Inject(method = "encode(Lio/netty/channel/ChannelHandlerContext;Lnet/minecraft/network/packet/Packet;Lio/netty/buffer/ByteBuf;)V", at = @At("HEAD"))
+    private void captureConnection(ChannelHandlerContext context, Packet<?> packet, ByteBuf out, CallbackInfo ci) {
+        if (this.owo$connection == null) this.owo$connection = context.pipeline().get(ClientConnection.class);
+        IdentifierDictionary.ENCODING_CONNECTION.set(this.owo$connection);
+    }
+
+    @Inject(method = "encode(Lio/netty/channel/ChannelHandlerContext;Lnet/minecraft/network/packet/Packet;Lio/netty/buffer/ByteBuf;)V", at = @At("RETURN"))
+    private void releaseConnection(ChannelHandlerContext context, Packet<?> packet, ByteBuf out, CallbackInfo ci) {
+        IdentifierDictionary.ENCODING_CONNECTION.remove();
+    }
+}
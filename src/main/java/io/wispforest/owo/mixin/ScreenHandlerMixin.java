@@ -9,7 +9,8 @@ import io.wispforest.owo.client.screens.SyncedProperty;
 import io.wispforest.owo.network.NetworkException;
 import io.wispforest.endec.Endec;
 import io.wispforest.owo.serialization.RegistriesAttribute;
-import io.wispforest.owo.serialization.endec.MinecraftEndecs;
+import io.wispforest.owo.serialization.endec.CompiledRecordEndec;
+import io.wispforest.owo.serialization.endec.CopyOnWriteEndecBuilder;
 import io.wispforest.owo.util.pond.OwoScreenHandlerExtension;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
@@ -49,16 +50,34 @@ public abstract class ScreenHandlerMixin implements OwoScreenHandler, OwoScreenH
     private PlayerEntity owo$player = null;
 
     @Unique
-    private ReflectiveEndecBuilder builder;
+    private CopyOnWriteEndecBuilder builder;
 
     @Inject(method = "<init>", at = @At("TAIL"))
     private void createReflectiveBuilder(ScreenHandlerType type, int syncId, CallbackInfo ci) {
-        this.builder = MinecraftEndecs.addDefaults(new ReflectiveEndecBuilder());
+        this.builder = CopyOnWriteEndecBuilder.defaults();
     }
 
     @Override
     public ReflectiveEndecBuilder endecBuilder() {
-        return builder;
+        return this.builder.mutable();
+    }
+
+    // the shorthands only look up endecs, so they can
+    // keep using the shared builder until one is registered
+
+    @Override
+    public <T> SyncedProperty<T> createProperty(Class<T> clazz, T initial) {
+        return this.createProperty(clazz, this.builder.get().get(clazz), initial);
+    }
+
+    @Override
+    public <R extends Record> void addServerboundMessage(Class<R> messageClass, Consumer<R> handler) {
+        this.addServerboundMessage(messageClass, CompiledRecordEndec.get(this.builder.get(), messageClass), handler);
+    }
+
+    @Override
+    public <R extends Record> void addClientboundMessage(Class<R> messageClass, Consumer<R> handler) {
+        this.addClientboundMessage(messageClass, CompiledRecordEndec.get(this.builder.get(), messageClass), handler);
     }
 
     @Override
@@ -25,9 +25,11 @@ public class ItemStackMixin {
     private void injectDerivedComponentMap(ItemConvertible item, int count, MergedComponentMap components, CallbackInfo ci) {
         var base = ((MergedComponentMapAccessor)(Object) this.components).owo$getBaseComponents();
 
+        // items which don't derive components need
+        // neither the wrapper nor calls to derive()
         if (base instanceof DerivedComponentMap derived) {
             owo$derivedMap = derived;
-        } else {
+        } else if (DerivedComponentMap.derivesComponents(item.asItem())) {
             owo$derivedMap = new DerivedComponentMap(base);
             ((MergedComponentMapAccessor)(Object) this.components).owo$setBaseComponents(owo$derivedMap);
         }
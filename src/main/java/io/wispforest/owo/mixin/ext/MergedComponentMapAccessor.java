@@ -1,11 +1,15 @@
 package io.wispforest.owo.mixin.ext;
 
+import it.unimi.dsi.fastutil.objects.Reference2ObjectMap;
 import net.minecraft.component.ComponentMap;
+import net.minecraft.component.ComponentType;
 import net.minecraft.component.MergedComponentMap;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Mutable;
 import org.spongepowered.asm.mixin.gen.Accessor;
 
+import java.util.Optional;
+
 @Mixin(MergedComponentMap.class)
 public interface MergedComponentMapAccessor {
     @Accessor("baseComponents")
@@ -14,4 +18,7 @@ public interface MergedComponentMapAccessor {
     @Accessor("baseComponents")
     @Mutable
     void owo$setBaseComponents(ComponentMap baseComponents);
+
+    @Accessor("changedComponents")
+    Reference2ObjectMap<ComponentType<?>, Optional<?>> owo$getChangedComponents();
 }
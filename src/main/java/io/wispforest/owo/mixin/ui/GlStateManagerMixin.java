@@ -0,0 +1,27 @@
+package io.wispforest.owo.mixin.ui;
+
+import com.mojang.blaze3d.platform.GlStateManager;
+import io.wispforest.owo.ui.util.ScissorStack;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(value = GlStateManager.class, remap = false)
+public class GlStateManagerMixin {
+
+    @Inject(method = "_enableScissorTest", at = @At("HEAD"))
+    private static void shadowScissorEnable(CallbackInfo ci) {
+        ScissorStack.shadowTestState(true);
+    }
+
+    @Inject(method = "_disableScissorTest", at = @At("HEAD"))
+    private static void shadowScissorDisable(CallbackInfo ci) {
+        ScissorStack.shadowTestState(false);
+    }
+
+    @Inject(method = "_scissorBox", at = @At("HEAD"))
+    private static void shadowScissorBox(int x, int y, int width, int height, CallbackInfo ci) {
+        ScissorStack.shadowScissorBox(x, y, width, height);
+    }
+}
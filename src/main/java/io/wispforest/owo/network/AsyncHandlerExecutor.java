@@ -0,0 +1,126 @@
+package io.wispforest.owo.network;
+
+import io.wispforest.owo.Owo;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs the handlers of one side of an {@link OwoNetChannel} which were
+ * registered as asynchronous, never running more than {@code maxConcurrent}
+ * of them at once. Handlers which cannot be started immediately are queued,
+ * and once {@code maxQueued} handlers are waiting, the channel's
+ * {@link OwoNetChannel.AsyncOverflow} policy decides what happens to the rest
+ */
+final class AsyncHandlerExecutor {
+
+    static final Executor DEFAULT_EXECUTOR = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("owo-net-handler-", 0).factory());
+
+    private static final List<AsyncHandlerExecutor> DELAYING_EXECUTORS = new ArrayList<>();
+
+    private final Executor executor;
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final OwoNetChannel.AsyncOverflow overflow;
+
+    private final ArrayDeque<Task> queue = new ArrayDeque<>();
+    private final ArrayDeque<Task> delayed = new ArrayDeque<>();
+    private int running = 0;
+
+    AsyncHandlerExecutor(Executor executor, int maxConcurrent, int maxQueued, OwoNetChannel.AsyncOverflow overflow) {
+        this.executor = executor;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.overflow = overflow;
+
+        if (overflow == OwoNetChannel.AsyncOverflow.DELAY) {
+            synchronized (DELAYING_EXECUTORS) {
+                DELAYING_EXECUTORS.add(this);
+            }
+        }
+    }
+
+    /**
+     * Retry the submission of all handlers which were delayed
+     * by a full queue. Called by {@link OwoNetChannel} once per tick
+     */
+    static void retryDelayed() {
+        synchronized (DELAYING_EXECUTORS) {
+            for (var executor : DELAYING_EXECUTORS) {
+                executor.retry();
+            }
+        }
+    }
+
+    void submit(Runnable handler, NetworkMetrics.Counters metrics) {
+        var task = new Task(handler, metrics);
+
+        synchronized (this) {
+            if (this.overflow == OwoNetChannel.AsyncOverflow.DELAY && !this.delayed.isEmpty()) {
+                // preserve ordering - nothing may overtake handlers which are already waiting
+                this.delay(task);
+                return;
+            }
+
+            if (!this.tryStart(task)) {
+                if (this.overflow == OwoNetChannel.AsyncOverflow.DELAY) {
+                    this.delay(task);
+                } else {
+                    metrics.recordDropped();
+                }
+            }
+        }
+    }
+
+    private synchronized void retry() {
+        while (!this.delayed.isEmpty()) {
+            if (!this.tryStart(this.delayed.peekFirst())) return;
+            this.delayed.pollFirst();
+        }
+    }
+
+    // must be called while holding the monitor of this executor
+    private boolean tryStart(Task task) {
+        if (this.running < this.maxConcurrent) {
+            this.running++;
+            this.executor.execute(() -> this.drain(task));
+            return true;
+        } else if (this.queue.size() < this.maxQueued) {
+            this.queue.addLast(task);
+            return true;
+        }
+
+        return false;
+    }
+
+    // must be called while holding the monitor of this executor
+    private void delay(Task task) {
+        if (this.delayed.size() < this.maxQueued) {
+            this.delayed.addLast(task);
+        } else {
+            task.metrics.recordDropped();
+        }
+    }
+
+    private void drain(Task task) {
+        while (task != null) {
+            try {
+                long startTime = System.nanoTime();
+                task.handler.run();
+                task.metrics.recordHandled(System.nanoTime() - startTime);
+            } catch (Throwable e) {
+                Owo.LOGGER.error("Asynchronous network handler threw an exception", e);
+            }
+
+            synchronized (this) {
+                task = this.queue.pollFirst();
+                if (task == null) this.running--;
+            }
+        }
+    }
+
+    private record Task(Runnable handler, NetworkMetrics.Counters metrics) {}
+}
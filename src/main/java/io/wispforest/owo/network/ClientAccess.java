@@ -32,4 +32,16 @@ public class ClientAccess implements OwoNetChannel.EnvironmentAccess<ClientPlaye
     public ClientPlayNetworkHandler netHandler() {
         return netHandler;
     }
+
+    /**
+     * Schedules the given task to run on the client thread. Intended
+     * for handlers registered through {@link OwoNetChannel#registerClientboundAsync(Class, OwoNetChannel.ChannelHandler)},
+     * which run off-thread and must not modify game state directly
+     *
+     * @param task The task to run
+     */
+    @Environment(EnvType.CLIENT)
+    public void runOnGameThread(Runnable task) {
+        instance.execute(task);
+    }
 }
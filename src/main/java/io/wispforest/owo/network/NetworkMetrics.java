@@ -0,0 +1,251 @@
+package io.wispforest.owo.network;
+
+import net.minecraft.util.Identifier;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Traffic statistics of a single {@link OwoNetChannel}, obtained
+ * through {@link OwoNetChannel#metrics()} or {@link #byChannel()}
+ * <p>
+ * Statistics are kept for the channel as a whole, for every message class
+ * registered on it and - on the server - for every connected player. Message
+ * sizes and encoding / decoding times are only known for messages which actually
+ * pass through the network stack, so messages sent over the local connection of an
+ * integrated server show up in the message and handler counters only. The per-player
+ * counters attribute the bytes of every packet on the channel to the player whose connection
+ * it passed through, including batch and chunk framing, but do not track encoding or decoding times
+ */
+public final class NetworkMetrics {
+
+    private static final Map<Identifier, NetworkMetrics> METRICS = new LinkedHashMap<>();
+
+    private final Identifier channelId;
+
+    private final Counters total = new Counters(null);
+    private final Map<Class<? extends Record>, Counters> byMessageClass = new ConcurrentHashMap<>();
+    private final Map<UUID, Counters> byPlayer = new ConcurrentHashMap<>();
+
+    NetworkMetrics(Identifier channelId) {
+        this.channelId = channelId;
+        METRICS.put(channelId, this);
+    }
+
+    /**
+     * @return The metrics of all registered channels, keyed by channel ID
+     */
+    public static Map<Identifier, NetworkMetrics> byChannel() {
+        return Collections.unmodifiableMap(METRICS);
+    }
+
+    /**
+     * @return The metrics of the channel with the given ID,
+     * or {@code null} if there is no such channel
+     */
+    public static @Nullable NetworkMetrics of(Identifier channelId) {
+        return METRICS.get(channelId);
+    }
+
+    /**
+     * Resets the metrics of all channels
+     */
+    public static void resetAll() {
+        METRICS.values().forEach(NetworkMetrics::reset);
+    }
+
+    static void forgetPlayer(UUID player) {
+        for (var metrics : METRICS.values()) {
+            metrics.byPlayer.remove(player);
+        }
+    }
+
+    public Identifier channelId() {
+        return this.channelId;
+    }
+
+    /**
+     * @return The counters of all traffic on this channel
+     */
+    public Counters total() {
+        return this.total;
+    }
+
+    /**
+     * @return The counters of every message class registered on this channel
+     */
+    public Map<Class<? extends Record>, Counters> byMessageClass() {
+        return Collections.unmodifiableMap(this.byMessageClass);
+    }
+
+    /**
+     * @return The counters of every player currently connected to
+     * this server, keyed by UUID. Always empty on the client
+     */
+    public Map<UUID, Counters> byPlayer() {
+        return Collections.unmodifiableMap(this.byPlayer);
+    }
+
+    /**
+     * Resets all counters of this channel to zero
+     */
+    public void reset() {
+        this.total.reset();
+        this.byMessageClass.values().forEach(Counters::reset);
+        this.byPlayer.values().forEach(Counters::reset);
+    }
+
+    Counters forMessageClass(Class<? extends Record> messageClass) {
+        return this.byMessageClass.computeIfAbsent(messageClass, $ -> new Counters(this.total));
+    }
+
+    Counters forPlayer(UUID player) {
+        return this.byPlayer.computeIfAbsent(player, $ -> new Counters(null));
+    }
+
+    /**
+     * A set of lock-free counters. All durations are in nanoseconds
+     */
+    public static final class Counters {
+
+        private final @Nullable Counters parent;
+
+        private final LongAdder messagesSent = new LongAdder();
+        private final LongAdder messagesReceived = new LongAdder();
+        private final LongAdder messagesDropped = new LongAdder();
+        private final LongAdder messagesRateLimited = new LongAdder();
+        private final LongAdder bytesSent = new LongAdder();
+        private final LongAdder bytesReceived = new LongAdder();
+        private final LongAdder encodeNanos = new LongAdder();
+        private final LongAdder decodeNanos = new LongAdder();
+        private final LongAdder handlerNanos = new LongAdder();
+
+        private Counters(@Nullable Counters parent) {
+            this.parent = parent;
+        }
+
+        public long messagesSent() {
+            return this.messagesSent.sum();
+        }
+
+        public long messagesReceived() {
+            return this.messagesReceived.sum();
+        }
+
+        /**
+         * @return The amount of received messages which were
+         * discarded instead of being passed to their handler
+         */
+        public long messagesDropped() {
+            return this.messagesDropped.sum();
+        }
+
+        /**
+         * @return The amount of serverbound messages which exceeded a rate limit
+         * configured through {@link OwoNetChannel#serverboundRateLimit(double, int, OwoNetChannel.RateLimitAction)}
+         */
+        public long messagesRateLimited() {
+            return this.messagesRateLimited.sum();
+        }
+
+        public long bytesSent() {
+            return this.bytesSent.sum();
+        }
+
+        public long bytesReceived() {
+            return this.bytesReceived.sum();
+        }
+
+        public long encodeNanos() {
+            return this.encodeNanos.sum();
+        }
+
+        public long decodeNanos() {
+            return this.decodeNanos.sum();
+        }
+
+        public long handlerNanos() {
+            return this.handlerNanos.sum();
+        }
+
+        void recordSent(int bytes) {
+            this.messagesSent.increment();
+            this.bytesSent.add(bytes);
+
+            if (this.parent != null) this.parent.recordSent(bytes);
+        }
+
+        void recordEncoded(long nanos) {
+            this.encodeNanos.add(nanos);
+
+            if (this.parent != null) this.parent.recordEncoded(nanos);
+        }
+
+        void recordReceived(int bytes, long decodeNanos) {
+            this.messagesReceived.increment();
+            this.bytesReceived.add(bytes);
+            this.decodeNanos.add(decodeNanos);
+
+            if (this.parent != null) this.parent.recordReceived(bytes, decodeNanos);
+        }
+
+        // per-player counters learn about messages and their sizes in different places,
+        // since only the event loop knows which connection a packet passes through
+
+        void recordMessageSent() {
+            this.messagesSent.increment();
+
+            if (this.parent != null) this.parent.recordMessageSent();
+        }
+
+        void recordBytesSent(int bytes) {
+            this.bytesSent.add(bytes);
+
+            if (this.parent != null) this.parent.recordBytesSent(bytes);
+        }
+
+        void recordMessageReceived() {
+            this.messagesReceived.increment();
+
+            if (this.parent != null) this.parent.recordMessageReceived();
+        }
+
+        void recordBytesReceived(int bytes) {
+            this.bytesReceived.add(bytes);
+
+            if (this.parent != null) this.parent.recordBytesReceived(bytes);
+        }
+
+        void recordHandled(long nanos) {
+            this.handlerNanos.add(nanos);
+
+            if (this.parent != null) this.parent.recordHandled(nanos);
+        }
+
+        void recordDropped() {
+            this.messagesDropped.increment();
+
+            if (this.parent != null) this.parent.recordDropped();
+        }
+
+        void recordRateLimited() {
+            this.messagesRateLimited.increment();
+
+            if (this.parent != null) this.parent.recordRateLimited();
+        }
+
+        private void reset() {
+            this.messagesSent.reset();
+            this.messagesReceived.reset();
+            this.messagesDropped.reset();
+            this.messagesRateLimited.reset();
+            this.bytesSent.reset();
+            this.bytesReceived.reset();
+            this.encodeNanos.reset();
+            this.decodeNanos.reset();
+            this.handlerNanos.reset();
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package io.wispforest.owo.network;
 
+import io.wispforest.owo.serialization.IdentifierDictionary;
 import net.minecraft.util.Identifier;
 import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.Map;
 import java.util.Set;
 
 @ApiStatus.Internal
@@ -10,4 +13,14 @@ public interface OwoClientConnectionExtension {
     void owo$setChannelSet(Set<Identifier> channels);
 
     Set<Identifier> owo$getChannelSet();
+
+    Map<Identifier, ServerboundRateLimiter> owo$getRateLimiters();
+
+    void owo$setEncodingDictionary(@Nullable IdentifierDictionary dictionary);
+
+    @Nullable IdentifierDictionary owo$getEncodingDictionary();
+
+    void owo$setDecodingDictionary(@Nullable IdentifierDictionary dictionary);
+
+    @Nullable IdentifierDictionary owo$getDecodingDictionary();
 }
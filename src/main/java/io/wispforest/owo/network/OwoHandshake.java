@@ -8,6 +8,7 @@ import io.wispforest.owo.ops.TextOps;
 import io.wispforest.owo.particles.systems.ParticleSystemController;
 import io.wispforest.endec.Endec;
 import io.wispforest.owo.serialization.CodecUtils;
+import io.wispforest.owo.serialization.IdentifierDictionary;
 import io.wispforest.owo.serialization.endec.MinecraftEndecs;
 import io.wispforest.owo.util.OwoFreezer;
 import io.wispforest.owo.util.ServicesFrozenException;
@@ -31,9 +32,11 @@ import net.minecraft.text.Text;
 import net.minecraft.util.Identifier;
 import net.minecraft.util.Pair;
 import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.ToIntFunction;
@@ -46,11 +49,15 @@ public final class OwoHandshake {
     private static final MutableText PREFIX = TextOps.concat(Owo.PREFIX, Text.of("§chandshake failure\n"));
     public static final Identifier CHANNEL_ID = Identifier.of("owo", "handshake");
     public static final Identifier OFF_CHANNEL_ID = Identifier.of("owo", "handshake_off");
+    public static final Identifier DICTIONARY_CHANNEL_ID = Identifier.of("owo", "identifier_dictionary");
 
     private static final boolean ENABLED = System.getProperty("owo.handshake.enabled") != null ? Boolean.getBoolean("owo.handshake.enabled") : Owo.DEBUG;
     private static boolean HANDSHAKE_REQUIRED = false;
     private static boolean QUERY_RECEIVED = false;
 
+    private static final boolean DICTIONARY_ENABLED = System.getProperty("owo.identifierDictionary.enabled") == null || Boolean.getBoolean("owo.identifierDictionary.enabled");
+    private static @Nullable IdentifierDictionary SERVER_DICTIONARY = null;
+
     private OwoHandshake() {}
 
     // ------------
@@ -78,6 +85,12 @@ public final class OwoHandshake {
         ServerConfigurationConnectionEvents.CONFIGURE.register(OwoHandshake::configureStart);
         ServerConfigurationNetworking.registerGlobalReceiver(HandshakeResponse.ID, OwoHandshake::syncServer);
 
+        PayloadTypeRegistry.configurationS2C().register(DictionaryOffer.ID, CodecUtils.toPacketCodec(DictionaryOffer.ENDEC));
+        PayloadTypeRegistry.configurationC2S().register(DictionaryAck.ID, PacketCodec.unit(new DictionaryAck()));
+
+        ServerConfigurationConnectionEvents.CONFIGURE.register(OwoHandshake::offerDictionary);
+        ServerConfigurationNetworking.registerGlobalReceiver(DictionaryAck.ID, OwoHandshake::acceptDictionary);
+
         if (FabricLoader.getInstance().getEnvironmentType() == EnvType.CLIENT) {
             if (!ENABLED) {
                 PayloadTypeRegistry.configurationS2C().register(HandshakeOff.ID, PacketCodec.unit(new HandshakeOff()));
@@ -85,6 +98,10 @@ public final class OwoHandshake {
             }
 
             ClientConfigurationNetworking.registerGlobalReceiver(HandshakeRequest.ID, OwoHandshake::syncClient);
+            if (DICTIONARY_ENABLED) {
+                ClientConfigurationNetworking.registerGlobalReceiver(DictionaryOffer.ID, OwoHandshake::installDictionary);
+            }
+
             ClientConfigurationConnectionEvents.READY.register(OwoHandshake::handleReadyClient);
 
             ClientPlayConnectionEvents.DISCONNECT.register((handler, client) -> {
@@ -170,6 +187,45 @@ public final class OwoHandshake {
         });
     }
 
+    // ---------------------
+    // Identifier dictionary
+    // ---------------------
+
+    // the server starts decoding with the dictionary as soon as it has been offered,
+    // but only encodes with it once the client confirms that it has been installed -
+    // otherwise packets sent in the meantime could reach the client before the dictionary
+
+    private static void offerDictionary(ServerConfigurationNetworkHandler handler, MinecraftServer server) {
+        if (!DICTIONARY_ENABLED || !ServerConfigurationNetworking.canSend(handler, DICTIONARY_CHANNEL_ID)) return;
+
+        if (SERVER_DICTIONARY == null) {
+            var builtinEntries = new HashSet<Identifier>();
+            builtinEntries.addAll(OwoNetChannel.REGISTERED_CHANNELS.keySet());
+            builtinEntries.addAll(ParticleSystemController.REGISTERED_CONTROLLERS.keySet());
+
+            SERVER_DICTIONARY = IdentifierDictionary.createServerDictionary(builtinEntries);
+        }
+
+        ((OwoClientConnectionExtension) ((ServerCommonNetworkHandlerAccessor) handler).owo$getConnection()).owo$setDecodingDictionary(SERVER_DICTIONARY);
+        ServerConfigurationNetworking.send(handler, new DictionaryOffer(SERVER_DICTIONARY.entries()));
+    }
+
+    private static void acceptDictionary(DictionaryAck ack, ServerConfigurationNetworking.Context context) {
+        var connection = (OwoClientConnectionExtension) ((ServerCommonNetworkHandlerAccessor) context.networkHandler()).owo$getConnection();
+        connection.owo$setEncodingDictionary(connection.owo$getDecodingDictionary());
+    }
+
+    @Environment(EnvType.CLIENT)
+    private static void installDictionary(DictionaryOffer offer, ClientConfigurationNetworking.Context context) {
+        var dictionary = new IdentifierDictionary(offer.entries());
+
+        var connection = (OwoClientConnectionExtension) ((ClientCommonNetworkHandlerAccessor) context.networkHandler()).getConnection();
+        connection.owo$setDecodingDictionary(dictionary);
+        connection.owo$setEncodingDictionary(dictionary);
+
+        context.responseSender().sendPacket(new DictionaryAck());
+    }
+
     // -------
     // Utility
     // -------
@@ -312,4 +368,27 @@ public final class OwoHandshake {
             return ID;
         }
     }
+
+    private record DictionaryOffer(List<Identifier> entries) implements CustomPayload {
+
+        public static final Id<DictionaryOffer> ID = new Id<>(OwoHandshake.DICTIONARY_CHANNEL_ID);
+        public static final Endec<DictionaryOffer> ENDEC = StructEndecBuilder.of(
+                MinecraftEndecs.IDENTIFIER.listOf().fieldOf("entries", DictionaryOffer::entries),
+                DictionaryOffer::new
+        );
+
+        @Override
+        public Id<? extends CustomPayload> getId() {
+            return ID;
+        }
+    }
+
+    private record DictionaryAck() implements CustomPayload {
+        public static final Id<DictionaryAck> ID = new Id<>(OwoHandshake.DICTIONARY_CHANNEL_ID);
+
+        @Override
+        public Id<? extends CustomPayload> getId() {
+            return ID;
+        }
+    }
 }
@@ -1,12 +1,19 @@
 package io.wispforest.owo.network;
 
-import io.wispforest.endec.impl.RecordEndec;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import io.wispforest.endec.impl.ReflectiveEndecBuilder;
 import io.wispforest.owo.mixin.ServerCommonNetworkHandlerAccessor;
+import io.wispforest.endec.Deserializer;
 import io.wispforest.endec.Endec;
+import io.wispforest.endec.SerializationContext;
+import io.wispforest.endec.Serializer;
 import io.wispforest.endec.StructEndec;
 import io.wispforest.owo.serialization.CodecUtils;
-import io.wispforest.owo.serialization.endec.MinecraftEndecs;
+import io.wispforest.owo.serialization.IdentifierDictionary;
+import io.wispforest.owo.serialization.RegistriesAttribute;
+import io.wispforest.owo.serialization.endec.CompiledRecordEndec;
+import io.wispforest.owo.serialization.endec.CopyOnWriteEndecBuilder;
 import io.wispforest.owo.util.OwoFreezer;
 import io.wispforest.owo.util.ReflectionUtils;
 import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
@@ -15,10 +22,14 @@ import it.unimi.dsi.fastutil.objects.Reference2IntMap;
 import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
 import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
 import net.fabricmc.fabric.api.networking.v1.PacketByteBufs;
 import net.fabricmc.fabric.api.networking.v1.PayloadTypeRegistry;
 import net.fabricmc.fabric.api.networking.v1.PlayerLookup;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
 import net.fabricmc.loader.api.FabricLoader;
 import net.minecraft.block.entity.BlockEntity;
@@ -26,6 +37,9 @@ import net.minecraft.client.MinecraftClient;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.network.ClientConnection;
 import net.minecraft.network.PacketByteBuf;
+import net.minecraft.network.RegistryByteBuf;
+import net.minecraft.network.codec.PacketCodec;
+import net.minecraft.registry.DynamicRegistryManager;
 import net.minecraft.network.packet.CustomPayload;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.network.ServerPlayNetworkHandler;
@@ -33,8 +47,10 @@ import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.util.Identifier;
 import net.minecraft.util.math.BlockPos;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.Executor;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -62,6 +78,21 @@ import java.util.stream.Collectors;
  *
  * <p> The registered packet handlers are executed synchronously on the target environment's
  * game thread instead of Netty's event loops - there is no need to call {@code .execute(...)}
+ *
+ * <p> Channels which send many messages per tick can opt into {@linkplain #batched() batching},
+ * which coalesces all messages sent to a connection during a tick into a single packet. Channels
+ * which send large messages can opt into {@linkplain #chunked(int, int, boolean) chunking}, which
+ * splits them into several packets sent over multiple ticks
+ *
+ * <p> Handlers which perform expensive work that does not touch game state can instead be registered
+ * through {@link #registerServerboundAsync(Class, ChannelHandler)} or {@link #registerClientboundAsync(Class, ChannelHandler)}.
+ * These run on a bounded executor, configured through {@link #asyncHandlerLimits(int, int, AsyncOverflow)}
+ * and {@link #asyncHandlerExecutor(Executor)}, and use {@link ServerAccess#runOnGameThread(Runnable)} or
+ * {@link ClientAccess#runOnGameThread(Runnable)} to hand their results back to the game thread
+ *
+ * <p> Servers can protect themselves against clients flooding a channel by configuring
+ * {@linkplain #serverboundRateLimit(double, int, RateLimitAction) rate limits}, which are
+ * enforced on the network thread before a message is decoded
  */
 public class OwoNetChannel {
 
@@ -69,23 +100,64 @@ public class OwoNetChannel {
     static final Map<Identifier, OwoNetChannel> REQUIRED_CHANNELS = new HashMap<>();
     static final Map<Identifier, OwoNetChannel> OPTIONAL_CHANNELS = new HashMap<>();
 
-    private final ReflectiveEndecBuilder builder;
+    private static final List<OwoNetChannel> BATCHED_CHANNELS = new ArrayList<>();
+    private static final List<OwoNetChannel> CHUNKED_CHANNELS = new ArrayList<>();
+    private static final int BATCH_INDEX = 0;
+    private static final int CHUNK_INDEX = -1;
+
+    private final CopyOnWriteEndecBuilder builder = CopyOnWriteEndecBuilder.networkDefaults();
 
     private final Map<Class<?>, IndexedEndec<?>> endecsByClass = new HashMap<>();
     final Int2ObjectMap<IndexedEndec<?>> endecsByIndex = new Int2ObjectOpenHashMap<>();
 
+    private final ClassValue<IndexedEndec<?>> endecsByClassCache = new ClassValue<>() {
+        @Override
+        protected IndexedEndec<?> computeValue(Class<?> type) {
+            var endec = endecsByClass.get(type);
+            if (endec == null) {
+                throw new NetworkException("Message class '" + type.getName() + "' is not registered on channel " + packetId.id());
+            }
+
+            return endec;
+        }
+    };
+
     private final List<ChannelHandler<Record, ClientAccess>> clientHandlers = new ArrayList<>();
     private final List<ChannelHandler<Record, ServerAccess>> serverHandlers = new ArrayList<>();
 
+    private final List<IndexedEndec<?>> clientEndecs = new ArrayList<>();
+    private final List<IndexedEndec<?>> serverEndecs = new ArrayList<>();
+
+    private final List<RecordDeltaTracker<?>> deltaTrackers = new ArrayList<>();
+
     private final Reference2IntMap<Class<?>> deferredClientEndecs = new Reference2IntOpenHashMap<>();
 
     final CustomPayload.Id<MessagePayload> packetId;
+    private final PayloadCodec clientCodec;
+    private final PayloadCodec serverCodec;
+    private final NetworkMetrics metrics;
     private final String ownerClassName;
     final boolean required;
 
     private ClientHandle clientHandle = null;
     private ServerHandle serverHandle = null;
 
+    private boolean batched = false;
+    private final Map<ServerPlayerEntity, List<MessagePayload>> queuedServerMessages = new HashMap<>();
+    private final List<MessagePayload> queuedClientMessages = new ArrayList<>();
+
+    private final PayloadChunker chunker = new PayloadChunker();
+
+    private @Nullable ServerboundRateLimiter.Limit rateLimit = null;
+    private boolean rateLimited = false;
+
+    private Executor asyncExecutor = AsyncHandlerExecutor.DEFAULT_EXECUTOR;
+    private int asyncMaxConcurrent = 4;
+    private int asyncMaxQueued = 64;
+    private AsyncOverflow asyncOverflow = AsyncOverflow.DROP;
+    private AsyncHandlerExecutor serverAsyncExecutor = null;
+    private AsyncHandlerExecutor clientAsyncExecutor = null;
+
     /**
      * Creates a new required channel with given ID. Duplicate channel
      * IDs are not allowed - if there is a collision, the name of the
@@ -117,12 +189,6 @@ public class OwoNetChannel {
     private OwoNetChannel(Identifier id, String ownerClassName, boolean required) {
         OwoFreezer.checkRegister("Network channels");
 
-        this.builder = new ReflectiveEndecBuilder(builder -> {
-            builder.register(Endec.VAR_INT, Integer.class, int.class);
-            builder.register(Endec.VAR_LONG, Long.class, long.class);
-            MinecraftEndecs.addDefaults(builder);
-        });
-
         if (REGISTERED_CHANNELS.containsKey(id)) {
             throw new IllegalStateException("Channel with id '" + id + "' was already registered from class '" + REGISTERED_CHANNELS.get(id).ownerClassName + "'");
         }
@@ -132,41 +198,73 @@ public class OwoNetChannel {
         this.packetId = new CustomPayload.Id<>(id);
         this.ownerClassName = ownerClassName;
         this.required = required;
+        this.metrics = new NetworkMetrics(id);
 
         OwoHandshake.enable();
         if (required) {
             OwoHandshake.requireHandshake();
         }
 
-        Endec<MessagePayload> serverEndec = Endec.<Record, Integer>dispatched(
-            index -> this.endecsByIndex.get(index).endec,
-            msg -> this.endecsByClass.get(msg.getClass()).serverHandlerIndex,
-            Endec.VAR_INT
-        )
-            .xmap(x -> new MessagePayload(this.packetId, x), x -> x.message);
+        this.clientCodec = new PayloadCodec(this.clientEndecs, false);
+        this.serverCodec = new PayloadCodec(this.serverEndecs, true);
 
-        Endec<MessagePayload> clientEndec = Endec.<Record, Integer>dispatched(
-                index -> this.endecsByIndex.get(-index).endec,
-                msg -> this.endecsByClass.get(msg.getClass()).clientHandlerIndex,
-                Endec.VAR_INT
-            )
-            .xmap(x -> new MessagePayload(this.packetId, x), x -> x.message);
-
-        PayloadTypeRegistry.playC2S().register(this.packetId, CodecUtils.toPacketCodec(serverEndec));
-        PayloadTypeRegistry.playS2C().register(this.packetId, CodecUtils.toPacketCodec(clientEndec));
+        PayloadTypeRegistry.playC2S().register(this.packetId, this.serverCodec);
+        PayloadTypeRegistry.playS2C().register(this.packetId, this.clientCodec);
 
         ServerPlayNetworking.registerGlobalReceiver(this.packetId, (payload, context) -> {
-            serverHandlers.get(endecsByClass.get(payload.message().getClass()).serverHandlerIndex).handle(payload.message, new ServerAccess(context.player()));
+            var access = new ServerAccess(context.player());
+            var playerMetrics = this.metrics.forPlayer(context.player().getUuid());
+
+            forEachMessage(payload, received -> {
+                var message = received.handlerIndex == CHUNK_INDEX
+                        ? this.serverCodec.decodeTransfer(this.chunker.acceptFromPlayer(context.player().getUuid(), (PayloadChunker.Chunk) received.message), context.player().getRegistryManager())
+                        : received;
+                if (message == null) return;
+
+                playerMetrics.recordMessageReceived();
+
+                var handler = serverHandlers.get(message.handlerIndex);
+                if (handler instanceof AsyncChannelHandler<?, ?>) {
+                    // asynchronous handlers are timed by their executor once they actually run
+                    handler.handle(message.message, access);
+                    return;
+                }
+
+                long startTime = System.nanoTime();
+                handler.handle(message.message, access);
+                long handlerTime = System.nanoTime() - startTime;
+
+                serverEndecs.get(message.handlerIndex).metrics.recordHandled(handlerTime);
+                playerMetrics.recordHandled(handlerTime);
+            });
         });
 
         if (FabricLoader.getInstance().getEnvironmentType() == EnvType.CLIENT) {
             ClientPlayNetworking.registerGlobalReceiver(this.packetId, (payload, context) -> {
-                clientHandlers.get(endecsByClass.get(payload.message.getClass()).clientHandlerIndex).handle(payload.message, new ClientAccess(context.player().networkHandler));
+                var access = new ClientAccess(context.player().networkHandler);
+                forEachMessage(payload, received -> {
+                    var message = received.handlerIndex == CHUNK_INDEX
+                            ? this.clientCodec.decodeTransfer(this.chunker.acceptFromServer((PayloadChunker.Chunk) received.message), context.player().getRegistryManager())
+                            : received;
+                    if (message == null) return;
+
+                    var handler = clientHandlers.get(message.handlerIndex);
+                    if (handler instanceof AsyncChannelHandler<?, ?>) {
+                        handler.handle(message.message, access);
+                        return;
+                    }
+
+                    long startTime = System.nanoTime();
+                    handler.handle(message.message, access);
+                    clientEndecs.get(message.handlerIndex).metrics.recordHandled(System.nanoTime() - startTime);
+                });
             });
         }
 
         clientHandlers.add(null);
         serverHandlers.add(null);
+        clientEndecs.add(null);
+        serverEndecs.add(null);
         REGISTERED_CHANNELS.put(id, this);
 
         if (required) {
@@ -177,13 +275,174 @@ public class OwoNetChannel {
     }
 
     public OwoNetChannel addEndecs(Consumer<ReflectiveEndecBuilder> endecBuilder) {
-        endecBuilder.accept(this.builder);
+        endecBuilder.accept(this.builder.mutable());
 
         return this;
     }
 
     public ReflectiveEndecBuilder builder() {
-        return this.builder;
+        return this.builder.mutable();
+    }
+
+    /**
+     * @return The traffic statistics of this channel
+     */
+    public NetworkMetrics metrics() {
+        return this.metrics;
+    }
+
+    /**
+     * Makes this channel coalesce all messages sent through its handles
+     * during a tick. Instead of sending one packet per message, the messages
+     * queued for a connection are flushed as a single packet at the end of the tick,
+     * where they are handed to their handlers in the order they were sent
+     * <p>
+     * Since the queues are flushed from the tick loop, <b>a batched channel's
+     * handles may only be used on the game thread</b>. Receiving batches requires
+     * no configuration, so this only needs to be called on the sending side
+     *
+     * @return This channel, for chaining
+     */
+    public OwoNetChannel batched() {
+        OwoFreezer.checkRegister("Network channel batching");
+
+        if (!this.batched) {
+            this.batched = true;
+            BATCHED_CHANNELS.add(this);
+        }
+
+        return this;
+    }
+
+    /**
+     * Makes this channel split messages larger than {@code maxChunkSize} bytes into several
+     * chunks, which are reassembled by the receiver before the message is handled. Chunks are
+     * sent at the end of each tick, with each connection receiving at most {@code bytesPerTick}
+     * bytes of chunks per tick - large messages are thus spread over multiple ticks
+     * instead of exceeding the packet size limit or stalling the connection
+     * <p>
+     * Messages are encoded on the sending thread to determine their size and since the chunk
+     * queues are flushed from the tick loop, <b>a chunked channel's handles may only be used
+     * on the game thread</b>. Chunked messages may arrive after smaller messages which were
+     * sent later, except for delta messages - those are held behind the chunks of an earlier
+     * delta of the same class so that they are applied in order. Receiving chunks requires no configuration, so this only needs to be
+     * called on the sending side
+     *
+     * @param maxChunkSize The largest amount of bytes sent in a single packet, at most {@value PayloadChunker#MAX_CHUNK_SIZE}
+     * @param bytesPerTick The amount of chunk bytes each connection receives per tick
+     * @param compress     Whether to deflate chunked messages before splitting them
+     * @return This channel, for chaining
+     */
+    public OwoNetChannel chunked(int maxChunkSize, int bytesPerTick, boolean compress) {
+        OwoFreezer.checkRegister("Network channel chunking");
+        if (maxChunkSize < 1 || maxChunkSize > PayloadChunker.MAX_CHUNK_SIZE) {
+            throw new IllegalArgumentException("Chunk size must be between 1 and " + PayloadChunker.MAX_CHUNK_SIZE + " bytes");
+        }
+
+        if (!this.chunker.enabled()) CHUNKED_CHANNELS.add(this);
+        this.chunker.configure(maxChunkSize, bytesPerTick, compress);
+
+        return this;
+    }
+
+    /**
+     * Makes this channel split large messages into compressed 16 KiB
+     * chunks, sending up to 256 KiB of them to each connection per tick
+     *
+     * @return This channel, for chaining
+     * @see #chunked(int, int, boolean)
+     */
+    public OwoNetChannel chunked() {
+        return this.chunked(16 * 1024, 256 * 1024, true);
+    }
+
+    /**
+     * Limits how many messages each client may send on this channel. Every connection
+     * gets a token bucket holding up to {@code burst} tokens which refills at
+     * {@code messagesPerSecond} tokens per second, and each serverbound message takes one token.
+     * <p>
+     * Messages arriving while the bucket is empty are handled according to {@code action},
+     * before they are decoded. Since batched messages are not length-prefixed, dropping a message
+     * also drops all messages following it in the same batch. Rate-limited messages are counted
+     * in the channel's {@link NetworkMetrics}
+     *
+     * @param messagesPerSecond The sustained amount of messages each client may send per second
+     * @param burst             The amount of messages each client may send at once
+     * @param action            What to do with messages exceeding the limit
+     * @return This channel, for chaining
+     * @see #serverboundRateLimit(Class, double, int, RateLimitAction)
+     */
+    public OwoNetChannel serverboundRateLimit(double messagesPerSecond, int burst, RateLimitAction action) {
+        OwoFreezer.checkRegister("Network channel rate limits");
+
+        this.rateLimit = ServerboundRateLimiter.Limit.of(messagesPerSecond, burst, action);
+        this.rateLimited = true;
+
+        return this;
+    }
+
+    /**
+     * Like {@link #serverboundRateLimit(double, int, RateLimitAction)}, but only applies to messages
+     * of the given class, which must already be registered as serverbound. Messages of that class
+     * must have a token in both their own and - if one is configured - the channel-wide bucket
+     *
+     * @param messageClass      The serverbound message class to limit
+     * @param messagesPerSecond The sustained amount of messages of this class each client may send per second
+     * @param burst             The amount of messages of this class each client may send at once
+     * @param action            What to do with messages exceeding the limit
+     * @return This channel, for chaining
+     */
+    public OwoNetChannel serverboundRateLimit(Class<? extends Record> messageClass, double messagesPerSecond, int burst, RateLimitAction action) {
+        OwoFreezer.checkRegister("Network channel rate limits");
+
+        var endec = this.endecsByClass.get(messageClass);
+        if (endec == null || endec.handlerIndex(EnvType.SERVER) == -1) {
+            throw new IllegalStateException("Message class '" + messageClass.getName() + "' must be registered as serverbound before it can be rate-limited");
+        }
+
+        endec.rateLimit = ServerboundRateLimiter.Limit.of(messagesPerSecond, burst, action);
+        this.rateLimited = true;
+
+        return this;
+    }
+
+    /**
+     * Configures how many asynchronous handlers of this channel may run at the same
+     * time on each side, and how many more may wait for a free slot before the
+     * {@code overflow} policy applies. Defaults to 4 concurrent and 64 queued handlers,
+     * dropping any further messages
+     *
+     * @param maxConcurrent The maximum amount of concurrently running handlers
+     * @param maxQueued     The maximum amount of handlers waiting to be run
+     * @param overflow      What to do with messages which arrive while the queue is full
+     * @return This channel, for chaining
+     * @see #registerServerboundAsync(Class, ChannelHandler)
+     * @see #registerClientboundAsync(Class, ChannelHandler)
+     */
+    public OwoNetChannel asyncHandlerLimits(int maxConcurrent, int maxQueued, AsyncOverflow overflow) {
+        OwoFreezer.checkRegister("Asynchronous network handler limits");
+        if (maxConcurrent < 1) throw new IllegalArgumentException("At least one asynchronous handler must be allowed to run");
+        if (maxQueued < 0) throw new IllegalArgumentException("Asynchronous handler queue size must not be negative");
+
+        this.asyncMaxConcurrent = maxConcurrent;
+        this.asyncMaxQueued = maxQueued;
+        this.asyncOverflow = overflow;
+
+        return this;
+    }
+
+    /**
+     * Sets the executor which runs the asynchronous handlers of this
+     * channel. Defaults to a shared executor which starts a virtual thread per task
+     *
+     * @param executor The executor to run asynchronous handlers on
+     * @return This channel, for chaining
+     */
+    public OwoNetChannel asyncHandlerExecutor(Executor executor) {
+        OwoFreezer.checkRegister("Asynchronous network handler executor");
+        this.asyncExecutor = executor;
+
+        return this;
     }
 
     /**
@@ -198,7 +457,7 @@ public class OwoNetChannel {
      * @see #serverHandle(ServerWorld, BlockPos)
      */
     public <R extends Record> void registerClientbound(Class<R> messageClass, ChannelHandler<R, ClientAccess> handler) {
-        registerClientbound(messageClass, handler, () -> RecordEndec.create(this.builder, messageClass));
+        registerClientbound(messageClass, handler, () -> CompiledRecordEndec.create(this.builder.get(), messageClass));
     }
 
     /**
@@ -212,7 +471,7 @@ public class OwoNetChannel {
      * @see #serverHandle(ServerWorld, BlockPos)
      */
     public <R extends Record> void registerClientboundDeferred(Class<R> messageClass) {
-        registerClientboundDeferred(messageClass, () -> RecordEndec.create(this.builder, messageClass));
+        registerClientboundDeferred(messageClass, () -> CompiledRecordEndec.create(this.builder.get(), messageClass));
     }
 
     /**
@@ -225,7 +484,7 @@ public class OwoNetChannel {
      * @see #clientHandle()
      */
     public <R extends Record> void registerServerbound(Class<R> messageClass, ChannelHandler<R, ServerAccess> handler) {
-        registerServerbound(messageClass, handler, () -> RecordEndec.create(this.builder, messageClass));
+        registerServerbound(messageClass, handler, () -> CompiledRecordEndec.create(this.builder.get(), messageClass));
     }
 
     //--
@@ -269,8 +528,154 @@ public class OwoNetChannel {
         registerServerbound(messageClass, handler, () -> endec);
     }
 
+    /**
+     * Registers a handler <i>on the client</i> for the specified message class,
+     * which is sent as a delta against the previous message of the same class
+     * <p>
+     * For each connection, the server remembers the last message of this class
+     * it sent and only transmits the record components which changed since then,
+     * alongside a bitmask describing which ones these are. The client rebuilds the
+     * full record before invoking {@code handler}. This is well suited to state which is
+     * synchronized frequently and only ever changes partially, and not at all to
+     * messages which are different every time
+     * <p>
+     * Delta messages can only be sent from the server and may not be registered
+     * bidirectionally. Their records may have at most 64 components
+     *
+     * @param messageClass The type of packet data to send and serialize
+     * @param handler      The handler that will receive the deserialized
+     * @see #serverHandle(PlayerEntity)
+     * @see #serverHandle(MinecraftServer)
+     * @see #serverHandle(ServerWorld, BlockPos)
+     */
+    public <R extends Record> void registerClientboundDelta(Class<R> messageClass, ChannelHandler<R, ClientAccess> handler) {
+        registerClientboundDelta(messageClass, CompiledRecordEndec.create(this.builder.get(), messageClass), handler);
+    }
+
+    /**
+     * Like {@link #registerClientboundDelta(Class, ChannelHandler)}, but with
+     * an explicitly provided endec whose struct fields are individually tracked
+     *
+     * @param messageClass The type of packet data to send and serialize
+     * @param endec        The endec to serialize messages with
+     * @param handler      The handler that will receive the deserialized
+     */
+    @SuppressWarnings("unchecked")
+    public <R extends Record> void registerClientboundDelta(Class<R> messageClass, StructEndec<R> endec, ChannelHandler<R, ClientAccess> handler) {
+        if (this.endecsByClass.containsKey(messageClass)) {
+            throw new IllegalStateException("Delta message class '" + messageClass.getName() + "' may not be registered more than once");
+        }
+
+        var deltaTracker = new RecordDeltaTracker<>(messageClass, endec);
+
+        int index = this.clientHandlers.size();
+        this.createEndec(messageClass, index, EnvType.CLIENT, () -> (StructEndec<R>) (Object) RecordDeltaTracker.ENDEC);
+        this.clientHandlers.add((message, access) -> {
+            var ctx = SerializationContext.attributes(RegistriesAttribute.of(access.player().getRegistryManager()));
+            handler.handle(deltaTracker.applyDelta(ctx, (RecordDeltaTracker.DeltaMessage) message), access);
+        });
+
+        ((IndexedEndec<R>) this.endecsByClass.get(messageClass)).deltaTracker = deltaTracker;
+        this.deltaTrackers.add(deltaTracker);
+    }
+
+    /**
+     * Registers an asynchronous handler <i>on the client</i> for the specified message class.
+     * Unlike regular handlers, {@code handler} is invoked off the game thread, subject to the
+     * limits set through {@link #asyncHandlerLimits(int, int, AsyncOverflow)} - it must not touch
+     * game state other than through {@link ClientAccess#runOnGameThread(Runnable)}. Handlers may run
+     * concurrently, so messages are not guaranteed to be handled in the order they were sent
+     *
+     * @param messageClass The type of packet data to send and serialize
+     * @param handler      The handler that will receive the deserialized
+     */
+    public <R extends Record> void registerClientboundAsync(Class<R> messageClass, ChannelHandler<R, ClientAccess> handler) {
+        registerClientbound(messageClass, this.async(messageClass, handler, EnvType.CLIENT), () -> CompiledRecordEndec.create(this.builder.get(), messageClass));
+    }
+
+    /**
+     * Like {@link #registerClientboundAsync(Class, ChannelHandler)}, but with an explicitly provided endec
+     *
+     * @param messageClass The type of packet data to send and serialize
+     * @param endec        The endec to serialize messages with
+     * @param handler      The handler that will receive the deserialized
+     */
+    public <R extends Record> void registerClientboundAsync(Class<R> messageClass, StructEndec<R> endec, ChannelHandler<R, ClientAccess> handler) {
+        registerClientbound(messageClass, this.async(messageClass, handler, EnvType.CLIENT), () -> endec);
+    }
+
+    /**
+     * Registers an asynchronous handler <i>on the server</i> for the specified message class.
+     * Unlike regular handlers, {@code handler} is invoked off the game thread, subject to the
+     * limits set through {@link #asyncHandlerLimits(int, int, AsyncOverflow)} - it must not touch
+     * game state other than through {@link ServerAccess#runOnGameThread(Runnable)}. Handlers may run
+     * concurrently, so messages are not guaranteed to be handled in the order they were sent
+     *
+     * @param messageClass The type of packet data to send and serialize
+     * @param handler      The handler that will receive the deserialized
+     */
+    public <R extends Record> void registerServerboundAsync(Class<R> messageClass, ChannelHandler<R, ServerAccess> handler) {
+        registerServerbound(messageClass, this.async(messageClass, handler, EnvType.SERVER), () -> CompiledRecordEndec.create(this.builder.get(), messageClass));
+    }
+
+    /**
+     * Like {@link #registerServerboundAsync(Class, ChannelHandler)}, but with an explicitly provided endec
+     *
+     * @param messageClass The type of packet data to send and serialize
+     * @param endec        The endec to serialize messages with
+     * @param handler      The handler that will receive the deserialized
+     */
+    public <R extends Record> void registerServerboundAsync(Class<R> messageClass, StructEndec<R> endec, ChannelHandler<R, ServerAccess> handler) {
+        registerServerbound(messageClass, this.async(messageClass, handler, EnvType.SERVER), () -> endec);
+    }
+
     //--
 
+    private <R extends Record, E extends EnvironmentAccess<?, ?, ?>> ChannelHandler<R, E> async(Class<R> messageClass, ChannelHandler<R, E> handler, EnvType side) {
+        return new AsyncChannelHandler<>(handler, side, this.metrics.forMessageClass(messageClass));
+    }
+
+    /**
+     * Submits each message to the asynchronous executor of its side. The receivers
+     * recognize these handlers, since the time they spend in {@link #handle(Record, EnvironmentAccess)}
+     * is only that of the submission - the executor records the actual handler time
+     */
+    private final class AsyncChannelHandler<R extends Record, E extends EnvironmentAccess<?, ?, ?>> implements ChannelHandler<R, E> {
+
+        private final ChannelHandler<R, E> handler;
+        private final EnvType side;
+        private final NetworkMetrics.Counters counters;
+
+        private AsyncChannelHandler(ChannelHandler<R, E> handler, EnvType side, NetworkMetrics.Counters counters) {
+            this.handler = handler;
+            this.side = side;
+            this.counters = counters;
+        }
+
+        @Override
+        public void handle(R message, E access) {
+            asyncExecutor(this.side).submit(() -> this.handler.handle(message, access), this.counters);
+        }
+    }
+
+    // created lazily, so that the limits configured after
+    // registering the handlers are still respected
+    private synchronized AsyncHandlerExecutor asyncExecutor(EnvType side) {
+        if (side == EnvType.SERVER) {
+            if (this.serverAsyncExecutor == null) {
+                this.serverAsyncExecutor = new AsyncHandlerExecutor(this.asyncExecutor, this.asyncMaxConcurrent, this.asyncMaxQueued, this.asyncOverflow);
+            }
+
+            return this.serverAsyncExecutor;
+        } else {
+            if (this.clientAsyncExecutor == null) {
+                this.clientAsyncExecutor = new AsyncHandlerExecutor(this.asyncExecutor, this.asyncMaxConcurrent, this.asyncMaxQueued, this.asyncOverflow);
+            }
+
+            return this.clientAsyncExecutor;
+        }
+    }
+
     @SuppressWarnings("unchecked")
     private  <R extends Record> void registerClientbound(Class<R> messageClass, ChannelHandler<R, ClientAccess> handler, Supplier<StructEndec<R>> endec) {
         int deferredIndex = deferredClientEndecs.removeInt(messageClass);
@@ -434,15 +839,18 @@ public class OwoNetChannel {
 
         var endec = endecsByClass.get(messageClass);
         if (endec == null) {
-            final var indexedEndec = IndexedEndec.create(messageClass, supplier.get(), handlerIndex, target);
-            endecsByClass.put(messageClass, indexedEndec);
-            endecsByIndex.put(target == EnvType.CLIENT ? -handlerIndex : handlerIndex, indexedEndec);
+            endec = IndexedEndec.create(messageClass, supplier.get(), this.metrics.forMessageClass(messageClass), handlerIndex, target);
+            endecsByClass.put(messageClass, endec);
+        } else if (endec.deltaTracker != null) {
+            throw new IllegalStateException("Delta message class '" + messageClass.getName() + "' may not be registered bidirectionally");
         } else if (endec.handlerIndex(target) == -1) {
             endec.setHandlerIndex(handlerIndex, target);
-            endecsByIndex.put(target == EnvType.CLIENT ? -handlerIndex : handlerIndex, endec);
         } else {
             throw new IllegalStateException("Message class '" + messageClass.getName() + "' is already registered for target environment " + target);
         }
+
+        endecsByIndex.put(target == EnvType.CLIENT ? -handlerIndex : handlerIndex, endec);
+        (target == EnvType.CLIENT ? clientEndecs : serverEndecs).add(endec);
     }
 
     public class ClientHandle {
@@ -454,7 +862,28 @@ public class OwoNetChannel {
          * @see #send(Record[])
          */
         public <R extends Record> void send(R message) {
-            ClientPlayNetworking.send(new MessagePayload(packetId, message));
+            var payload = createPayload(message, EnvType.SERVER);
+
+            var networkHandler = chunker.enabled() ? MinecraftClient.getInstance().getNetworkHandler() : null;
+            if (networkHandler != null && !networkHandler.getConnection().isLocal()) {
+                var encoded = serverCodec.encodeOnce(payload, networkHandler.getRegistryManager());
+
+                var chunks = chunker.split(encoded);
+                if (chunks != null) {
+                    serverEndecs.get(payload.handlerIndex).metrics.recordSent(encoded.readableBytes());
+                    chunker.queueToServer(chunks);
+                    return;
+                }
+
+                payload = new MessagePayload(packetId, payload.handlerIndex, message, encoded);
+            }
+
+            if (batched) {
+                queuedClientMessages.add(payload);
+                return;
+            }
+
+            ClientPlayNetworking.send(payload);
         }
 
         /**
@@ -476,13 +905,16 @@ public class OwoNetChannel {
          * Sends the given message to the configured target(s)
          * <b>Resets the target(s) after sending - this cannot be used
          * for multiple messages on the same handle</b>
+         * <p>
+         * When there is more than one target, the message is
+         * only encoded once and the resulting bytes are shared
+         * between all receiving connections
          *
          * @param message The message to send
          * @see #send(Record[])
          */
         public <R extends Record> void send(R message) {
-            this.targets.forEach(player -> ServerPlayNetworking.send(player, new MessagePayload(packetId, message)));
-            this.targets = null;
+            this.sendAll(new Record[]{message});
         }
 
         /**
@@ -494,12 +926,71 @@ public class OwoNetChannel {
          */
         @SafeVarargs
         public final <R extends Record> void send(R... messages) {
-            this.targets.forEach(player -> {
-                for (R message : messages) {
-                    ServerPlayNetworking.send(player, new MessagePayload(packetId, message));
-                }
-            });
+            this.sendAll(messages);
+        }
+
+        @SuppressWarnings("unchecked")
+        private void sendAll(Record[] messages) {
+            var targets = this.targets;
             this.targets = null;
+
+            if (targets.isEmpty()) return;
+            var registries = targets.iterator().next().getRegistryManager();
+
+            var payloads = new MessagePayload[messages.length];
+            var chunks = (List<PayloadChunker.Chunk>[]) new List<?>[messages.length];
+            var deltaTrackers = new RecordDeltaTracker<?>[messages.length];
+            var deltaFields = (List<byte[]>[]) new List<?>[messages.length];
+
+            for (int i = 0; i < messages.length; i++) {
+                payloads[i] = createPayload(messages[i], EnvType.CLIENT);
+
+                var deltaTracker = (RecordDeltaTracker<Record>) endecsByClassCache.get(messages[i].getClass()).deltaTracker;
+                if (deltaTracker != null) {
+                    // delta messages depend on the state of each individual
+                    // connection, so only the field values can be shared
+                    deltaTrackers[i] = deltaTracker;
+                    deltaFields[i] = deltaTracker.encodeFields(SerializationContext.attributes(RegistriesAttribute.of(registries)), messages[i]);
+                } else if (chunker.enabled() || (!batched && targets.size() > 1)) {
+                    payloads[i] = new MessagePayload(packetId, payloads[i].handlerIndex, messages[i], clientCodec.encodeOnce(payloads[i], registries));
+                    if (chunker.enabled()) chunks[i] = chunker.split(payloads[i].encoded);
+                }
+            }
+
+            for (var player : targets) {
+                var playerMetrics = metrics.forPlayer(player.getUuid());
+                boolean local = player.networkHandler.getConnection().isLocal();
+
+                for (int i = 0; i < messages.length; i++) {
+                    var payload = payloads[i];
+                    var playerChunks = chunks[i];
+
+                    if (deltaTrackers[i] != null) {
+                        payload = new MessagePayload(packetId, payload.handlerIndex, deltaTrackers[i].createDelta(player.getUuid(), deltaFields[i]), null);
+
+                        if (chunker.enabled() && !local) {
+                            payload = new MessagePayload(packetId, payload.handlerIndex, payload.message, clientCodec.encodeOnce(payload, registries));
+                            playerChunks = chunker.split(payload.encoded);
+                        }
+                    }
+
+                    // the local connection never encodes payloads,
+                    // so splitting them up would be pointless
+                    if (playerChunks != null && !local) {
+                        clientEndecs.get(payload.handlerIndex).metrics.recordSent(payload.encoded.readableBytes());
+                        chunker.queueToPlayer(player.getUuid(), payload.handlerIndex, playerChunks);
+                    } else if (deltaTrackers[i] != null && chunker.queueBehindChunks(player.getUuid(), payload)) {
+                        // held until the chunks of the preceding delta are sent, the
+                        // queue only exists for remote players so this is pre-encoded
+                    } else if (batched) {
+                        queuedServerMessages.computeIfAbsent(player, $ -> new ArrayList<>()).add(payload);
+                    } else {
+                        ServerPlayNetworking.send(player, payload);
+                    }
+
+                    playerMetrics.recordMessageSent();
+                }
+            }
         }
     }
 
@@ -507,7 +998,8 @@ public class OwoNetChannel {
 
         /**
          * Executed on the game thread to handle the incoming
-         * message - this can safely modify game state
+         * message - this can safely modify game state. Handlers registered
+         * as asynchronous are executed off-thread instead
          *
          * @param message The message that was received
          * @param access  The {@link EnvironmentAccess} used to obtain references
@@ -545,6 +1037,98 @@ public class OwoNetChannel {
         N netHandler();
     }
 
+    /**
+     * Creates the payload for sending {@code message} to the given target environment,
+     * resolving its handler index once so that neither encoding nor handling
+     * on the receiving side need to look up the message class again
+     */
+    private MessagePayload createPayload(Record message, EnvType target) {
+        int handlerIndex = this.endecsByClassCache.get(message.getClass()).handlerIndex(target);
+        if (handlerIndex == -1) {
+            throw new NetworkException("Message class '" + message.getClass().getName() + "' is not registered for target environment " + target + " on channel " + this.packetId.id());
+        }
+
+        return new MessagePayload(this.packetId, handlerIndex, message, null);
+    }
+
+    private static void forEachMessage(MessagePayload payload, Consumer<MessagePayload> action) {
+        if (payload.message instanceof MessageBatch batch) {
+            batch.messages.forEach(action);
+        } else {
+            action.accept(payload);
+        }
+    }
+
+    ServerboundRateLimiter createRateLimiter(ClientConnection connection) {
+        var limits = new ServerboundRateLimiter.Limit[this.serverEndecs.size()];
+        var counters = new NetworkMetrics.Counters[this.serverEndecs.size()];
+
+        limits[0] = this.rateLimit;
+        counters[0] = this.metrics.total();
+
+        for (int i = 1; i < limits.length; i++) {
+            limits[i] = this.serverEndecs.get(i).rateLimit;
+            counters[i] = this.serverEndecs.get(i).metrics;
+        }
+
+        return new ServerboundRateLimiter(connection, this.metrics, limits, counters);
+    }
+
+    private MessagePayload batchOf(List<MessagePayload> messages) {
+        return messages.size() == 1 ? messages.get(0) : new MessagePayload(this.packetId, BATCH_INDEX, new MessageBatch(messages), null);
+    }
+
+    private void flushServerMessages() {
+        if (this.queuedServerMessages.isEmpty()) return;
+
+        this.queuedServerMessages.forEach((player, messages) -> {
+            if (player.isDisconnected()) return;
+            ServerPlayNetworking.send(player, this.batchOf(messages));
+        });
+
+        this.queuedServerMessages.clear();
+    }
+
+    private void flushServerChunks(MinecraftServer server) {
+        this.chunker.flushToPlayers(new PayloadChunker.ChunkSender() {
+            @Override
+            public boolean isConnected(UUID player) {
+                return server.getPlayerManager().getPlayer(player) != null;
+            }
+
+            @Override
+            public void send(UUID player, PayloadChunker.Chunk chunk) {
+                ServerPlayNetworking.send(server.getPlayerManager().getPlayer(player), new MessagePayload(packetId, CHUNK_INDEX, chunk, null));
+            }
+
+            @Override
+            public void send(UUID player, MessagePayload message) {
+                ServerPlayNetworking.send(server.getPlayerManager().getPlayer(player), message);
+            }
+        });
+    }
+
+    @Environment(EnvType.CLIENT)
+    private void flushClientChunks(MinecraftClient client) {
+        if (client.getNetworkHandler() == null) {
+            this.chunker.resetClient();
+            return;
+        }
+
+        this.chunker.flushToServer(chunk -> ClientPlayNetworking.send(new MessagePayload(this.packetId, CHUNK_INDEX, chunk, null)));
+    }
+
+    @Environment(EnvType.CLIENT)
+    private void flushClientMessages(MinecraftClient client) {
+        if (this.queuedClientMessages.isEmpty()) return;
+
+        if (client.getNetworkHandler() != null) {
+            ClientPlayNetworking.send(this.batchOf(List.copyOf(this.queuedClientMessages)));
+        }
+
+        this.queuedClientMessages.clear();
+    }
+
     private void verify() {
         if (FabricLoader.getInstance().getEnvironmentType() == EnvType.CLIENT) {
             if (!this.deferredClientEndecs.isEmpty()) {
@@ -559,6 +1143,80 @@ public class OwoNetChannel {
                 channel.verify();
             }
         });
+
+        ServerPlayConnectionEvents.DISCONNECT.register((handler, server) -> {
+            NetworkMetrics.forgetPlayer(handler.player.getUuid());
+
+            for (var channel : REGISTERED_CHANNELS.values()) {
+                channel.deltaTrackers.forEach(tracker -> tracker.forgetConnection(handler.player.getUuid()));
+                channel.chunker.forgetPlayer(handler.player.getUuid());
+            }
+        });
+
+        ServerTickEvents.END_SERVER_TICK.register(server -> {
+            for (var channel : BATCHED_CHANNELS) {
+                channel.flushServerMessages();
+            }
+
+            for (var channel : CHUNKED_CHANNELS) {
+                channel.flushServerChunks(server);
+            }
+
+            AsyncHandlerExecutor.retryDelayed();
+        });
+
+        if (FabricLoader.getInstance().getEnvironmentType() == EnvType.CLIENT) {
+            ClientTickEvents.END_CLIENT_TICK.register(client -> {
+                for (var channel : BATCHED_CHANNELS) {
+                    channel.flushClientMessages(client);
+                }
+
+                for (var channel : CHUNKED_CHANNELS) {
+                    channel.flushClientChunks(client);
+                }
+
+                AsyncHandlerExecutor.retryDelayed();
+            });
+
+            ClientPlayConnectionEvents.DISCONNECT.register((handler, client) -> {
+                for (var channel : REGISTERED_CHANNELS.values()) {
+                    channel.deltaTrackers.forEach(RecordDeltaTracker::resetReceived);
+                    channel.chunker.resetClient();
+                }
+            });
+        }
+    }
+
+    /**
+     * What happens to serverbound messages which exceed a rate limit
+     */
+    public enum RateLimitAction {
+        /**
+         * Discard the message without decoding it
+         */
+        DROP,
+        /**
+         * Terminate the connection of the client which sent the message
+         */
+        DISCONNECT
+    }
+
+    /**
+     * What an asynchronous handler executor does with messages that
+     * arrive while all of its handler slots and its queue are occupied
+     */
+    public enum AsyncOverflow {
+        /**
+         * Discard the message. Dropped messages are
+         * counted in the channel's {@link NetworkMetrics}
+         */
+        DROP,
+        /**
+         * Hold the message back and retry submitting it on the next tick. At most
+         * as many messages as fit into the queue are held back, any further
+         * ones are dropped
+         */
+        DELAY
     }
 
     static final class IndexedEndec<R extends Record> {
@@ -567,14 +1225,18 @@ public class OwoNetChannel {
 
         private final Class<R> recordClass;
         private final StructEndec<R> endec;
+        private final NetworkMetrics.Counters metrics;
+        private @Nullable RecordDeltaTracker<R> deltaTracker = null;
+        private @Nullable ServerboundRateLimiter.Limit rateLimit = null;
 
-        private IndexedEndec(Class<R> recordClass, StructEndec<R> endec) {
+        private IndexedEndec(Class<R> recordClass, StructEndec<R> endec, NetworkMetrics.Counters metrics) {
             this.endec = endec;
             this.recordClass = recordClass;
+            this.metrics = metrics;
         }
 
-        public static <R extends Record> IndexedEndec<R> create(Class<R> rClass, StructEndec<R> endec, int index, EnvType target) {
-            return new IndexedEndec<>(rClass, endec).setHandlerIndex(index, target);
+        public static <R extends Record> IndexedEndec<R> create(Class<R> rClass, StructEndec<R> endec, NetworkMetrics.Counters metrics, int index, EnvType target) {
+            return new IndexedEndec<>(rClass, endec, metrics).setHandlerIndex(index, target);
         }
 
         public IndexedEndec<R> setHandlerIndex(int index, EnvType target) {
@@ -597,7 +1259,240 @@ public class OwoNetChannel {
         }
     }
 
-    record MessagePayload(CustomPayload.Id<MessagePayload> id, Record message) implements CustomPayload {
+    /**
+     * A set of messages which were queued on a {@linkplain #batched() batched}
+     * channel during one tick and are sent as a single packet
+     */
+    record MessageBatch(List<MessagePayload> messages) {}
+
+    /**
+     * Encodes a single payload as its handler index followed by the message itself. The index
+     * doubles as the key into the handler table of the receiving side, which means that
+     * neither direction ever needs to look at the class of a message
+     */
+    private final class PayloadEndec implements StructEndec<MessagePayload> {
+
+        private final List<IndexedEndec<?>> endecs;
+
+        private PayloadEndec(List<IndexedEndec<?>> endecs) {
+            this.endecs = endecs;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void encodeStruct(SerializationContext ctx, Serializer<?> serializer, Serializer.Struct struct, MessagePayload payload) {
+            struct.field("handler", ctx, Endec.VAR_INT, payload.handlerIndex);
+            struct.field("message", ctx, (StructEndec<Record>) this.endecs.get(payload.handlerIndex).endec, payload.message);
+        }
+
+        @Override
+        public MessagePayload decodeStruct(SerializationContext ctx, Deserializer<?> deserializer, Deserializer.Struct struct) {
+            int handlerIndex = struct.field("handler", ctx, Endec.VAR_INT);
+
+            if (handlerIndex <= 0 || handlerIndex >= this.endecs.size()) {
+                throw new NetworkException("Received message with invalid handler index " + handlerIndex + " on channel " + packetId.id());
+            }
+
+            return new MessagePayload(packetId, handlerIndex, struct.field("message", ctx, this.endecs.get(handlerIndex).endec), null);
+        }
+    }
+
+    /**
+     * The packet codec of one direction of this channel. On top of plain messages,
+     * this handles batches (the reserved handler index {@code 0}, followed by a varint
+     * message count and that many messages), chunks of large messages (the reserved handler
+     * index {@code -1}), payloads which were encoded ahead of time for a broadcast and keeps
+     * the {@link NetworkMetrics} of each message class up to date
+     */
+    private final class PayloadCodec implements PacketCodec<RegistryByteBuf, MessagePayload> {
+
+        private final List<IndexedEndec<?>> endecs;
+        private final boolean serverbound;
+        private final PacketCodec<RegistryByteBuf, MessagePayload> messageCodec;
+
+        private PayloadCodec(List<IndexedEndec<?>> endecs, boolean serverbound) {
+            this.endecs = endecs;
+            this.serverbound = serverbound;
+            this.messageCodec = CodecUtils.toPacketCodec(new PayloadEndec(endecs));
+        }
+
+        @Override
+        public MessagePayload decode(RegistryByteBuf buf) {
+            int startIndex = buf.readerIndex();
+            var payload = this.decodePayload(buf);
+
+            var playerMetrics = this.serverbound ? this.playerMetrics(ServerboundRateLimiter.DECODING_CONNECTION.get()) : null;
+            if (playerMetrics != null) playerMetrics.recordBytesReceived(buf.readerIndex() - startIndex);
+
+            return payload;
+        }
+
+        /**
+         * @return The metrics of the player on the other end of {@code connection},
+         * or {@code null} if it is not the connection of a player on this server
+         */
+        private @Nullable NetworkMetrics.Counters playerMetrics(@Nullable ClientConnection connection) {
+            if (connection == null || !(connection.getPacketListener() instanceof ServerPlayNetworkHandler handler)) return null;
+            return metrics.forPlayer(handler.player.getUuid());
+        }
+
+        private MessagePayload decodePayload(RegistryByteBuf buf) {
+            // a varint starting with a zero byte can only ever be zero,
+            // so peeking at a single byte is enough to detect batches
+            var rateLimiter = this.serverbound && rateLimited ? ServerboundRateLimiter.decodingConnectionLimiter(OwoNetChannel.this) : null;
+
+            if (buf.getByte(buf.readerIndex()) != BATCH_INDEX) {
+                int startIndex = buf.readerIndex();
+                int handlerIndex = buf.readVarInt();
+
+                if (rateLimiter != null && !rateLimiter.admit(handlerIndex)) {
+                    return this.discardRemaining(buf, List.of());
+                }
+
+                if (handlerIndex == CHUNK_INDEX) {
+                    return new MessagePayload(packetId, CHUNK_INDEX, new PayloadChunker.Chunk(
+                            buf.readVarInt(),
+                            buf.readVarInt(),
+                            buf.readVarInt(),
+                            buf.readBoolean(),
+                            buf.readByteArray(PayloadChunker.MAX_CHUNK_SIZE)
+                    ), null);
+                }
+
+                buf.readerIndex(startIndex);
+                return this.decodeMessage(buf);
+            }
+
+            buf.readVarInt();
+            int messageCount = buf.readVarInt();
+
+            var messages = new ArrayList<MessagePayload>(Math.min(messageCount, 256));
+            for (int i = 0; i < messageCount; i++) {
+                if (rateLimiter != null && !rateLimiter.admit(this.peekVarInt(buf))) {
+                    return this.discardRemaining(buf, messages);
+                }
+
+                messages.add(this.decodeMessage(buf));
+            }
+
+            return new MessagePayload(packetId, BATCH_INDEX, new MessageBatch(messages), null);
+        }
+
+        private int peekVarInt(RegistryByteBuf buf) {
+            int startIndex = buf.readerIndex();
+            int value = buf.readVarInt();
+            buf.readerIndex(startIndex);
+
+            return value;
+        }
+
+        // the payload always extends to the end of the packet, so the
+        // rest of it can be skipped without knowing where messages end
+        private MessagePayload discardRemaining(RegistryByteBuf buf, List<MessagePayload> decodedMessages) {
+            buf.skipBytes(buf.readableBytes());
+            return new MessagePayload(packetId, BATCH_INDEX, new MessageBatch(decodedMessages), null);
+        }
+
+        private MessagePayload decodeMessage(RegistryByteBuf buf) {
+            int startIndex = buf.readerIndex();
+            long startTime = System.nanoTime();
+
+            var payload = this.messageCodec.decode(buf);
+            this.endecs.get(payload.handlerIndex).metrics.recordReceived(buf.readerIndex() - startIndex, System.nanoTime() - startTime);
+
+            return payload;
+        }
+
+        /**
+         * Decode the message carried by a completed chunked transfer
+         */
+        private @Nullable MessagePayload decodeTransfer(@Nullable ByteBuf transfer, DynamicRegistryManager registries) {
+            return transfer != null ? this.decodeMessage(new RegistryByteBuf(transfer, registries)) : null;
+        }
+
+        @Override
+        public void encode(RegistryByteBuf buf, MessagePayload payload) {
+            int startIndex = buf.writerIndex();
+            this.encodePayload(buf, payload);
+
+            var playerMetrics = !this.serverbound ? this.playerMetrics(IdentifierDictionary.ENCODING_CONNECTION.get()) : null;
+            if (playerMetrics != null) playerMetrics.recordBytesSent(buf.writerIndex() - startIndex);
+        }
+
+        private void encodePayload(RegistryByteBuf buf, MessagePayload payload) {
+            if (payload.handlerIndex == CHUNK_INDEX) {
+                var chunk = (PayloadChunker.Chunk) payload.message;
+
+                buf.writeVarInt(CHUNK_INDEX);
+                buf.writeVarInt(chunk.transferId());
+                buf.writeVarInt(chunk.size());
+                buf.writeVarInt(chunk.uncompressedSize());
+                buf.writeBoolean(chunk.compressed());
+                buf.writeByteArray(chunk.data());
+                return;
+            }
+
+            if (payload.handlerIndex != BATCH_INDEX) {
+                this.encodeMessage(buf, payload);
+                return;
+            }
+
+            var messages = ((MessageBatch) payload.message).messages;
+
+            buf.writeVarInt(BATCH_INDEX);
+            buf.writeVarInt(messages.size());
+
+            for (var message : messages) {
+                this.encodeMessage(buf, message);
+            }
+        }
+
+        private void encodeMessage(RegistryByteBuf buf, MessagePayload payload) {
+            // pre-encoded payloads carry their encoded form already, so all
+            // that is left to do for each connection is copying the bytes over
+            if (payload.encoded != null) {
+                buf.writeBytes(payload.encoded, payload.encoded.readerIndex(), payload.encoded.readableBytes());
+                this.endecs.get(payload.handlerIndex).metrics.recordSent(payload.encoded.readableBytes());
+                return;
+            }
+
+            int startIndex = buf.writerIndex();
+            long startTime = System.nanoTime();
+
+            this.messageCodec.encode(buf, payload);
+
+            var metrics = this.endecs.get(payload.handlerIndex).metrics;
+            metrics.recordEncoded(System.nanoTime() - startTime);
+            metrics.recordSent(buf.writerIndex() - startIndex);
+        }
+
+        /**
+         * Encode the given payload into a standalone buffer, to later be
+         * copied into the packet buffer of each connection it is sent to
+         */
+        private ByteBuf encodeOnce(MessagePayload payload, DynamicRegistryManager registries) {
+            // the buffer is heap-backed on purpose - payloads which never get encoded
+            // (local connections, disconnected players) are simply collected by the GC
+            // instead of leaking pooled memory
+            var buffer = new RegistryByteBuf(Unpooled.buffer(), registries);
+            long startTime = System.nanoTime();
+
+            this.messageCodec.encode(buffer, payload);
+            this.endecs.get(payload.handlerIndex).metrics.recordEncoded(System.nanoTime() - startTime);
+
+            return buffer;
+        }
+    }
+
+    /**
+     * @param handlerIndex The index of the handler this payload's message is dispatched to
+     *                     on the receiving side, {@code 0} for a {@link MessageBatch}
+     *                     or {@code -1} for a {@link PayloadChunker.Chunk}
+     * @param encoded      The already-encoded form of this payload, shared by all
+     *                     connections it is sent to. {@code null} unless the payload
+     *                     was created for a broadcast or on a chunked channel
+     */
+    record MessagePayload(CustomPayload.Id<MessagePayload> id, int handlerIndex, Record message, @Nullable ByteBuf encoded) implements CustomPayload {
         @Override
         public Id<? extends CustomPayload> getId() {
             return id;
@@ -0,0 +1,319 @@
+package io.wispforest.owo.network;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Chunked transfer state of a single {@link OwoNetChannel}, see {@link OwoNetChannel#chunked(int, int, boolean)}
+ * <p>
+ * Messages whose encoded form exceeds the chunk size are optionally deflated and split into ordered
+ * chunks, which are then queued for their connection. Every tick, each connection's queue is drained up
+ * to its byte budget, so a single large message is spread over several ticks instead of being sent at once.
+ * The receiver appends the chunks of a transfer in order and decodes the message once the last one arrived.
+ * <p>
+ * Delta messages sent to a player while chunks of the same message class are still queued for them are held
+ * in that player's queue as well, so that they cannot overtake the delta they were computed against.
+ * Since chunks are sent and received on the game thread, no synchronization is required
+ */
+final class PayloadChunker {
+
+    /**
+     * The largest transfer, compressed or not, a receiver is willing to reassemble
+     */
+    static final int MAX_TRANSFER_SIZE = 16 * 1024 * 1024;
+
+    static final int MAX_CHUNK_SIZE = 32000;
+
+    private int chunkSize = -1;
+    private int bytesPerTick;
+    private boolean compress;
+
+    private int nextTransferId = 0;
+
+    private final Map<UUID, ArrayDeque<Queued>> serverOutgoing = new HashMap<>();
+    private final Map<UUID, Reassembly> serverIncoming = new HashMap<>();
+
+    private final ArrayDeque<Chunk> clientOutgoing = new ArrayDeque<>();
+    private @Nullable Reassembly clientIncoming = null;
+
+    void configure(int chunkSize, int bytesPerTick, boolean compress) {
+        this.chunkSize = chunkSize;
+        this.bytesPerTick = bytesPerTick;
+        this.compress = compress;
+    }
+
+    boolean enabled() {
+        return this.chunkSize != -1;
+    }
+
+    /**
+     * Split the given encoded message into chunks if it exceeds
+     * the chunk size, otherwise return {@code null}
+     */
+    @Nullable List<Chunk> split(ByteBuf encoded) {
+        int size = encoded.readableBytes();
+        if (size <= this.chunkSize) return null;
+
+        if (size > MAX_TRANSFER_SIZE) {
+            throw new NetworkException("Message of " + size + " bytes exceeds the maximum transfer size of " + MAX_TRANSFER_SIZE + " bytes");
+        }
+
+        byte[] data = ByteBufUtil.getBytes(encoded);
+        boolean compressed = false;
+
+        if (this.compress) {
+            var deflated = deflate(data);
+            if (deflated.length < data.length) {
+                data = deflated;
+                compressed = true;
+            }
+        }
+
+        int transferId = this.nextTransferId++;
+        var chunks = new ArrayList<Chunk>(data.length / this.chunkSize + 1);
+
+        for (int offset = 0; offset < data.length; offset += this.chunkSize) {
+            chunks.add(new Chunk(transferId, data.length, size, compressed, Arrays.copyOfRange(data, offset, Math.min(offset + this.chunkSize, data.length))));
+        }
+
+        return chunks;
+    }
+
+    void queueToPlayer(UUID player, int handlerIndex, List<Chunk> chunks) {
+        var queue = this.serverOutgoing.computeIfAbsent(player, $ -> new ArrayDeque<>());
+        for (var chunk : chunks) {
+            queue.add(new Queued(handlerIndex, chunk, null));
+        }
+    }
+
+    /**
+     * Hold the given encoded message in the queue of {@code player} if any
+     * chunks of a message with the same handler index are still queued for them
+     *
+     * @return {@code true} if the message was queued and must not be sent directly
+     */
+    boolean queueBehindChunks(UUID player, OwoNetChannel.MessagePayload message) {
+        var queue = this.serverOutgoing.get(player);
+        if (queue == null) return false;
+
+        for (var queued : queue) {
+            if (queued.handlerIndex != message.handlerIndex()) continue;
+
+            queue.add(new Queued(message.handlerIndex(), null, message));
+            return true;
+        }
+
+        return false;
+    }
+
+    void queueToServer(List<Chunk> chunks) {
+        this.clientOutgoing.addAll(chunks);
+    }
+
+    /**
+     * Send the queued chunks of every player within their byte budget.
+     * Queues of players which are no longer connected are discarded
+     */
+    void flushToPlayers(ChunkSender sender) {
+        var iterator = this.serverOutgoing.entrySet().iterator();
+        while (iterator.hasNext()) {
+            var entry = iterator.next();
+
+            if (!sender.isConnected(entry.getKey())) {
+                iterator.remove();
+                continue;
+            }
+
+            var queue = entry.getValue();
+            var player = entry.getKey();
+
+            // always send at least one entry, so that a budget
+            // smaller than the chunk size cannot stall the queue
+            int budget = this.bytesPerTick;
+            do {
+                var queued = queue.pollFirst();
+                if (queued == null) break;
+
+                if (queued.chunk != null) {
+                    sender.send(player, queued.chunk);
+                    budget -= queued.chunk.data.length;
+                } else {
+                    sender.send(player, queued.message);
+                    budget -= queued.message.encoded().readableBytes();
+                }
+            } while (budget > 0);
+
+            if (queue.isEmpty()) iterator.remove();
+        }
+    }
+
+    void flushToServer(Consumer<Chunk> sender) {
+        int budget = this.bytesPerTick;
+        do {
+            var chunk = this.clientOutgoing.pollFirst();
+            if (chunk == null) return;
+
+            sender.accept(chunk);
+            budget -= chunk.data.length;
+        } while (budget > 0);
+    }
+
+    /**
+     * Append the given chunk to the transfer currently being received from {@code player}
+     *
+     * @return The complete encoded message if this was its last chunk, {@code null} otherwise
+     */
+    @Nullable ByteBuf acceptFromPlayer(UUID player, Chunk chunk) {
+        var reassembly = this.serverIncoming.get(player);
+        if (reassembly == null || reassembly.transferId != chunk.transferId) {
+            reassembly = new Reassembly(chunk);
+            this.serverIncoming.put(player, reassembly);
+        }
+
+        var message = reassembly.accept(chunk);
+        if (message != null) this.serverIncoming.remove(player);
+
+        return message;
+    }
+
+    /**
+     * Append the given chunk to the transfer currently being received from the server
+     *
+     * @return The complete encoded message if this was its last chunk, {@code null} otherwise
+     */
+    @Nullable ByteBuf acceptFromServer(Chunk chunk) {
+        if (this.clientIncoming == null || this.clientIncoming.transferId != chunk.transferId) {
+            this.clientIncoming = new Reassembly(chunk);
+        }
+
+        var message = this.clientIncoming.accept(chunk);
+        if (message != null) this.clientIncoming = null;
+
+        return message;
+    }
+
+    void forgetPlayer(UUID player) {
+        this.serverOutgoing.remove(player);
+        this.serverIncoming.remove(player);
+    }
+
+    void resetClient() {
+        this.clientOutgoing.clear();
+        this.clientIncoming = null;
+    }
+
+    private static byte[] deflate(byte[] data) {
+        var deflater = new Deflater();
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+
+            var output = Unpooled.buffer(data.length / 2);
+            var buffer = new byte[8192];
+
+            while (!deflater.finished()) {
+                output.writeBytes(buffer, 0, deflater.deflate(buffer));
+            }
+
+            return ByteBufUtil.getBytes(output);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] data, int uncompressedSize) {
+        var inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+
+            var output = new byte[uncompressedSize];
+            int length = 0;
+
+            while (length < uncompressedSize && !inflater.finished()) {
+                int inflated = inflater.inflate(output, length, uncompressedSize - length);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+
+                length += inflated;
+            }
+
+            if (length != uncompressedSize || !inflater.finished()) {
+                throw new NetworkException("Compressed transfer did not match its declared size of " + uncompressedSize + " bytes");
+            }
+
+            return output;
+        } catch (DataFormatException e) {
+            throw new NetworkException("Received malformed compressed transfer: " + e.getMessage());
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static final class Reassembly {
+
+        private final int transferId;
+        private final int size;
+        private final int uncompressedSize;
+        private final boolean compressed;
+
+        private final ByteBuf data;
+
+        private Reassembly(Chunk header) {
+            if (header.size > MAX_TRANSFER_SIZE || header.uncompressedSize > MAX_TRANSFER_SIZE || header.size < 0 || header.uncompressedSize < 0) {
+                throw new NetworkException("Received transfer exceeding the maximum transfer size of " + MAX_TRANSFER_SIZE + " bytes");
+            }
+
+            this.transferId = header.transferId;
+            this.size = header.size;
+            this.uncompressedSize = header.uncompressedSize;
+            this.compressed = header.compressed;
+
+            // grown as chunks arrive instead of allocating the
+            // declared size upfront, which the sender controls
+            this.data = Unpooled.buffer(Math.min(this.size, MAX_CHUNK_SIZE));
+        }
+
+        private @Nullable ByteBuf accept(Chunk chunk) {
+            if (chunk.size != this.size || this.data.readableBytes() + chunk.data.length > this.size) {
+                throw new NetworkException("Received chunk which does not match transfer " + this.transferId);
+            }
+
+            this.data.writeBytes(chunk.data);
+            if (this.data.readableBytes() < this.size) return null;
+
+            return this.compressed
+                    ? Unpooled.wrappedBuffer(inflate(ByteBufUtil.getBytes(this.data), this.uncompressedSize))
+                    : this.data;
+        }
+    }
+
+    interface ChunkSender {
+        boolean isConnected(UUID player);
+
+        void send(UUID player, Chunk chunk);
+
+        void send(UUID player, OwoNetChannel.MessagePayload message);
+    }
+
+    /**
+     * An entry of a player's outgoing queue, either a chunk or a
+     * message which is held behind the chunks queued before it
+     */
+    private record Queued(int handlerIndex, @Nullable Chunk chunk, @Nullable OwoNetChannel.MessagePayload message) {}
+
+    /**
+     * @param transferId       The transfer this chunk belongs to, unique per sending side
+     * @param size             The total size of the transferred data
+     * @param uncompressedSize The size of the encoded message once the data is inflated
+     * @param compressed       Whether the transferred data is deflated
+     * @param data             The section of the transferred data carried by this chunk
+     */
+    record Chunk(int transferId, int size, int uncompressedSize, boolean compressed, byte[] data) {}
+}
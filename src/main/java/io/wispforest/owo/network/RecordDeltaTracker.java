@@ -0,0 +1,152 @@
+package io.wispforest.owo.network;
+
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.wispforest.endec.*;
+import io.wispforest.endec.format.bytebuf.ByteBufDeserializer;
+import io.wispforest.endec.format.bytebuf.ByteBufSerializer;
+import io.wispforest.endec.impl.StructEndecBuilder;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Delta state of a message class registered through
+ * {@link OwoNetChannel#registerClientboundDelta(Class, StructEndec, OwoNetChannel.ChannelHandler)}
+ * <p>
+ * Messages are split into the encoded form of each of their struct fields. The sender
+ * remembers the fields last sent to each connection and only transmits those which
+ * changed, together with a bitmask describing which ones that are. The receiver keeps
+ * the fields it last received and rebuilds the full message from them before handing it
+ * to the channel handler. Since both sides update their state on the game thread, in the
+ * order messages are sent and handled, the state on both ends stays in sync
+ */
+final class RecordDeltaTracker<R extends Record> {
+
+    static final StructEndec<DeltaMessage> ENDEC = StructEndecBuilder.of(
+            Endec.VAR_INT.fieldOf("field_count", DeltaMessage::fieldCount),
+            Endec.VAR_LONG.fieldOf("changed_fields", DeltaMessage::changedFields),
+            Endec.BYTES.listOf().fieldOf("values", DeltaMessage::values),
+            DeltaMessage::new
+    );
+
+    private static final int MAX_FIELDS = Long.SIZE;
+
+    private final Class<R> messageClass;
+    private final StructEndec<R> endec;
+
+    private final Map<UUID, List<byte[]>> lastSent = new HashMap<>();
+    private @Nullable List<byte[]> lastReceived = null;
+
+    RecordDeltaTracker(Class<R> messageClass, StructEndec<R> endec) {
+        this.messageClass = messageClass;
+        this.endec = endec;
+    }
+
+    /**
+     * Encode each struct field of {@code message} separately, to
+     * then be compared against the state of each target connection
+     */
+    List<byte[]> encodeFields(SerializationContext ctx, R message) {
+        var fields = new ArrayList<byte[]>();
+
+        this.endec.encodeStruct(ctx, ByteBufSerializer.of(Unpooled.buffer(0)), new Serializer.Struct() {
+            @Override
+            public <F> Serializer.Struct field(String name, SerializationContext ctx, Endec<F> endec, F value, boolean mayOmit) {
+                var buffer = Unpooled.buffer();
+                endec.encode(ctx, ByteBufSerializer.of(buffer), value);
+                fields.add(ByteBufUtil.getBytes(buffer));
+
+                return this;
+            }
+
+            @Override
+            public void end() {}
+        }, message);
+
+        if (fields.size() > MAX_FIELDS) {
+            throw new NetworkException("Delta message class '" + this.messageClass.getName() + "' has more than " + MAX_FIELDS + " fields");
+        }
+
+        return fields;
+    }
+
+    /**
+     * Create the delta between the given fields and those last sent to
+     * {@code connection} and remember them as the new state of that connection
+     */
+    DeltaMessage createDelta(UUID connection, List<byte[]> fields) {
+        var previous = this.lastSent.put(connection, fields);
+        boolean full = previous == null || previous.size() != fields.size();
+
+        long changedFields = 0;
+        var values = new ArrayList<byte[]>();
+
+        for (int i = 0; i < fields.size(); i++) {
+            if (!full && Arrays.equals(previous.get(i), fields.get(i))) continue;
+
+            changedFields |= 1L << i;
+            values.add(fields.get(i));
+        }
+
+        return new DeltaMessage(fields.size(), changedFields, values);
+    }
+
+    /**
+     * Apply the given delta to the last received state and decode the full message from it
+     */
+    R applyDelta(SerializationContext ctx, DeltaMessage delta) {
+        if (delta.fieldCount > MAX_FIELDS) {
+            throw new NetworkException("Received delta message with " + delta.fieldCount + " fields for class '" + this.messageClass.getName() + "'");
+        }
+
+        var fields = this.lastReceived != null && this.lastReceived.size() == delta.fieldCount
+                ? new ArrayList<>(this.lastReceived)
+                : new ArrayList<byte[]>(Collections.nCopies(delta.fieldCount, null));
+
+        var values = delta.values.iterator();
+        for (int i = 0; i < delta.fieldCount; i++) {
+            if ((delta.changedFields & (1L << i)) == 0) continue;
+
+            if (!values.hasNext()) {
+                throw new NetworkException("Received delta message for class '" + this.messageClass.getName() + "' with missing field values");
+            }
+
+            fields.set(i, values.next());
+        }
+
+        if (fields.contains(null)) {
+            throw new NetworkException("Received delta message for class '" + this.messageClass.getName() + "' without a complete previous state");
+        }
+
+        this.lastReceived = fields;
+
+        var fieldIterator = fields.iterator();
+        return this.endec.decodeStruct(ctx, ByteBufDeserializer.of(Unpooled.EMPTY_BUFFER), new Deserializer.Struct() {
+            @Override
+            public <F> @Nullable F field(String name, SerializationContext ctx, Endec<F> endec, @Nullable Supplier<F> defaultValueFactory) {
+                if (!fieldIterator.hasNext()) {
+                    throw new NetworkException("Delta message for class '" + messageClass.getName() + "' is missing field '" + name + "'");
+                }
+
+                return endec.decode(ctx, ByteBufDeserializer.of(Unpooled.wrappedBuffer(fieldIterator.next())));
+            }
+        });
+    }
+
+    void forgetConnection(UUID connection) {
+        this.lastSent.remove(connection);
+    }
+
+    void resetReceived() {
+        this.lastReceived = null;
+    }
+
+    /**
+     * @param fieldCount    The total amount of fields of the message
+     * @param changedFields A bitmask of the fields present in {@code values}
+     * @param values        The encoded values of all changed fields, in order
+     */
+    record DeltaMessage(int fieldCount, long changedFields, List<byte[]> values) {}
+}
@@ -16,4 +16,15 @@ public record ServerAccess(ServerPlayerEntity player) implements
     public ServerPlayNetworkHandler netHandler() {
         return player.networkHandler;
     }
+
+    /**
+     * Schedules the given task to run on the server thread. Intended
+     * for handlers registered through {@link OwoNetChannel#registerServerboundAsync(Class, OwoNetChannel.ChannelHandler)},
+     * which run off-thread and must not modify game state directly
+     *
+     * @param task The task to run
+     */
+    public void runOnGameThread(Runnable task) {
+        player.server.execute(task);
+    }
 }
@@ -0,0 +1,121 @@
+package io.wispforest.owo.network;
+
+import net.minecraft.network.ClientConnection;
+import net.minecraft.server.network.ServerPlayNetworkHandler;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The token buckets of a single connection on a single rate-limited {@link OwoNetChannel},
+ * see {@link OwoNetChannel#serverboundRateLimit(double, int, OwoNetChannel.RateLimitAction)}
+ * <p>
+ * Buckets are allocated once per connection when the first message on the channel
+ * arrives and only ever accessed from that connection's event loop, so checking a
+ * message against its limits neither allocates nor synchronizes
+ */
+@ApiStatus.Internal
+public final class ServerboundRateLimiter {
+
+    /**
+     * The connection whose packets are currently being decoded on this thread,
+     * set by {@code DecoderHandlerMixin} for the duration of each decode call
+     */
+    @ApiStatus.Internal
+    public static final ThreadLocal<ClientConnection> DECODING_CONNECTION = new ThreadLocal<>();
+
+    private final ClientConnection connection;
+    private final NetworkMetrics channelMetrics;
+
+    // index 0 holds the channel-wide limit, all others
+    // the limit of the message class with that handler index
+    private final Limit[] limits;
+    private final NetworkMetrics.Counters[] metrics;
+
+    private final double[] tokens;
+    private final long[] lastRefill;
+
+    ServerboundRateLimiter(ClientConnection connection, NetworkMetrics channelMetrics, Limit[] limits, NetworkMetrics.Counters[] metrics) {
+        this.connection = connection;
+        this.channelMetrics = channelMetrics;
+        this.limits = limits;
+        this.metrics = metrics;
+
+        this.tokens = new double[limits.length];
+        this.lastRefill = new long[limits.length];
+
+        long now = System.nanoTime();
+        for (int i = 0; i < limits.length; i++) {
+            if (limits[i] == null) continue;
+
+            this.tokens[i] = limits[i].burst;
+            this.lastRefill[i] = now;
+        }
+    }
+
+    /**
+     * Take a token for a message with the given handler index from the channel bucket
+     * and the bucket of its message class. If either is empty, the message is counted
+     * as rate-limited and, if the exceeded limit demands it, the connection is terminated
+     *
+     * @return {@code true} if the message may be decoded
+     */
+    boolean admit(int handlerIndex) {
+        long now = System.nanoTime();
+        boolean knownIndex = handlerIndex > 0 && handlerIndex < this.limits.length;
+
+        Limit exceeded = null;
+        if (!this.hasToken(0, now)) {
+            exceeded = this.limits[0];
+        } else if (knownIndex && !this.hasToken(handlerIndex, now)) {
+            exceeded = this.limits[handlerIndex];
+        }
+
+        if (exceeded == null) {
+            if (this.limits[0] != null) this.tokens[0]--;
+            if (knownIndex && this.limits[handlerIndex] != null) this.tokens[handlerIndex]--;
+            return true;
+        }
+
+        this.metrics[knownIndex ? handlerIndex : 0].recordRateLimited();
+        if (this.connection.getPacketListener() instanceof ServerPlayNetworkHandler handler) {
+            this.channelMetrics.forPlayer(handler.player.getUuid()).recordRateLimited();
+        }
+
+        if (exceeded.action == OwoNetChannel.RateLimitAction.DISCONNECT) {
+            throw new NetworkException("Exceeded the rate limit of channel " + this.channelMetrics.channelId());
+        }
+
+        return false;
+    }
+
+    private boolean hasToken(int bucket, long now) {
+        var limit = this.limits[bucket];
+        if (limit == null) return true;
+
+        this.tokens[bucket] = Math.min(limit.burst, this.tokens[bucket] + (now - this.lastRefill[bucket]) * limit.tokensPerNano);
+        this.lastRefill[bucket] = now;
+
+        return this.tokens[bucket] >= 1;
+    }
+
+    static @Nullable ServerboundRateLimiter decodingConnectionLimiter(OwoNetChannel channel) {
+        var connection = DECODING_CONNECTION.get();
+        if (connection == null) return null;
+
+        return ((OwoClientConnectionExtension) connection).owo$getRateLimiters().computeIfAbsent(channel.packetId.id(), $ -> channel.createRateLimiter(connection));
+    }
+
+    /**
+     * @param tokensPerNano The rate at which the bucket refills
+     * @param burst         The capacity of the bucket
+     * @param action        What to do with the connection once the bucket is empty
+     */
+    record Limit(double tokensPerNano, int burst, OwoNetChannel.RateLimitAction action) {
+        static Limit of(double messagesPerSecond, int burst, OwoNetChannel.RateLimitAction action) {
+            if (messagesPerSecond <= 0) throw new IllegalArgumentException("Rate limits must allow a positive amount of messages per second");
+            if (burst < 1) throw new IllegalArgumentException("Rate limit bursts must allow at least one message");
+
+            return new Limit(messagesPerSecond / 1_000_000_000d, burst, action);
+        }
+    }
+}
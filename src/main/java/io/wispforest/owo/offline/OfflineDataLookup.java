@@ -1,6 +1,7 @@
 package io.wispforest.owo.offline;
 
 import io.wispforest.owo.Owo;
+import io.wispforest.owo.serialization.format.nbt.NbtProjection;
 import net.minecraft.datafixer.DataFixTypes;
 import net.minecraft.datafixer.Schemas;
 import net.minecraft.nbt.NbtCompound;
@@ -70,6 +71,27 @@ public final class OfflineDataLookup {
         }
     }
 
+    /**
+     * Loads the playerdata of the given player from disk without parsing it. Individual
+     * values can then be read from the returned projection through {@link NbtProjection#get(io.wispforest.endec.impl.KeyedEndec)},
+     * which only decodes the requested keys
+     * <p>
+     * Unlike {@link #get(UUID)}, the data is <b>not</b> passed through
+     * the data fixer and is thus exactly as it was saved
+     *
+     * @param player The player to query
+     * @return A projection of the saved playerdata, or {@code null} if none is saved
+     */
+    public static @Nullable NbtProjection project(UUID player) {
+        try {
+            Path savedPlayersPath = Owo.currentServer().getSavePath(WorldSavePath.PLAYERDATA);
+            return NbtProjection.readCompressed(savedPlayersPath.resolve(player.toString() + ".dat"));
+        } catch (IOException e) {
+            Owo.LOGGER.error("Couldn't get player data for offline player {}", player, e);
+            return null;
+        }
+    }
+
     /**
      * Edits the saved data of the given player
      * with the given editing function
@@ -6,6 +6,8 @@ import io.wispforest.owo.network.NetworkException;
 import io.wispforest.owo.network.OwoHandshake;
 import io.wispforest.endec.Endec;
 import io.wispforest.owo.serialization.CodecUtils;
+import io.wispforest.owo.serialization.endec.CompiledRecordEndec;
+import io.wispforest.owo.serialization.endec.CopyOnWriteEndecBuilder;
 import io.wispforest.owo.serialization.endec.MinecraftEndecs;
 import io.wispforest.owo.util.OwoFreezer;
 import io.wispforest.owo.util.ReflectionUtils;
@@ -51,7 +53,7 @@ public class ParticleSystemController {
     private int maxIndex = 0;
     private final String ownerClassName;
 
-    private final ReflectiveEndecBuilder builder;
+    private final CopyOnWriteEndecBuilder builder = CopyOnWriteEndecBuilder.defaults();
 
     /**
      * Creates a new controller with the given ID. Duplicate controller IDs
@@ -65,8 +67,6 @@ public class ParticleSystemController {
     public ParticleSystemController(Identifier channelId) {
         OwoFreezer.checkRegister("Particle system controllers");
 
-        this.builder = MinecraftEndecs.addDefaults(new ReflectiveEndecBuilder());
-
         if (REGISTERED_CONTROLLERS.containsKey(channelId)) {
             throw new IllegalStateException("Controller with id '" + channelId + "' was already registered from class '" +
                     REGISTERED_CONTROLLERS.get(channelId).ownerClassName + "'");
@@ -104,7 +104,7 @@ public class ParticleSystemController {
     }
 
     public ReflectiveEndecBuilder endecBuilder() {
-        return this.builder;
+        return this.builder.mutable();
     }
 
     /**
@@ -125,10 +125,10 @@ public class ParticleSystemController {
 
     /**
      * Shorthand for {{@link #register(Class, Endec, ParticleSystemExecutor)}} which creates the endec
-     * through {@link ReflectiveEndecBuilder#get(Class)}
+     * through {@link CompiledRecordEndec#get(ReflectiveEndecBuilder, Class)}
      */
     public <T> ParticleSystem<T> register(Class<T> dataClass, ParticleSystemExecutor<T> executor) {
-        return this.register(dataClass, this.builder.get(dataClass), executor);
+        return this.register(dataClass, CompiledRecordEndec.get(this.builder.get(), dataClass), executor);
     }
 
     /**
@@ -152,10 +152,10 @@ public class ParticleSystemController {
 
     /**
      * Shorthand for {{@link #registerDeferred(Class, Endec)}} which creates the endec
-     * through {@link ReflectiveEndecBuilder#get(Class)}
+     * through {@link CompiledRecordEndec#get(ReflectiveEndecBuilder, Class)}
      */
     public <T> ParticleSystem<T> registerDeferred(Class<T> dataClass) {
-        return this.registerDeferred(dataClass, this.builder.get(dataClass));
+        return this.registerDeferred(dataClass, CompiledRecordEndec.get(this.builder.get(), dataClass));
     }
 
     <T> void sendPacket(ParticleSystem<T> particleSystem, ServerWorld world, Vec3d pos, T data) {
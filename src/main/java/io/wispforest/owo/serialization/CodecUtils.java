@@ -7,6 +7,7 @@ import com.mojang.datafixers.util.Either;
 import com.mojang.datafixers.util.Pair;
 import com.mojang.serialization.*;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.buffer.Unpooled;
 import io.wispforest.endec.*;
 import io.wispforest.endec.format.bytebuf.ByteBufDeserializer;
@@ -20,7 +21,6 @@ import io.wispforest.endec.format.gson.GsonSerializer;
 import io.wispforest.owo.mixin.ForwardingDynamicOpsAccessor;
 import io.wispforest.owo.mixin.RegistryOpsAccessor;
 import io.wispforest.owo.serialization.endec.EitherEndec;
-import io.wispforest.owo.serialization.endec.MinecraftEndecs;
 import io.wispforest.owo.serialization.endec.StructEitherEndec;
 import io.wispforest.owo.serialization.format.ContextHolder;
 import io.wispforest.owo.serialization.format.DynamicOpsWithContext;
@@ -36,6 +36,7 @@ import net.minecraft.nbt.NbtOps;
 import net.minecraft.nbt.NbtString;
 import net.minecraft.network.PacketByteBuf;
 import net.minecraft.network.RegistryByteBuf;
+import net.minecraft.network.encoding.VarInts;
 import net.minecraft.network.codec.PacketCodec;
 import net.minecraft.registry.RegistryOps;
 import net.minecraft.util.dynamic.ForwardingDynamicOps;
@@ -44,6 +45,7 @@ import org.jetbrains.annotations.Nullable;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
@@ -65,6 +67,16 @@ public class CodecUtils {
      * <p>
      * When encoding, the value is encoded using {@code codec} to an EDM element which is then
      * written into the serializer
+     * <p>
+     * For self-described formats with a registered {@link CodecAdapter}, EDM is skipped entirely -
+     * {@code codec} runs directly on the format's own {@link DynamicOps}, and for NBT the resulting
+     * element is handed to the serializer (or taken from the deserializer) without being copied
+     * <p>
+     * All other formats, including the binary network format, still go through a complete EDM tree.
+     * A {@link DynamicOps} value must exist as an object before its parent list or map can take it,
+     * so codecs cannot stream into a serializer - some intermediate representation is always built.
+     * The EDM tree is the only one though: it is written straight into the serializer by {@link EdmEndec},
+     * and when decoding it is read straight from the deserializer before {@code codec} parses it
      */
     public static <T> Endec<T> toEndec(Codec<T> codec) {
         return Endec.of(encoderOfCodec(codec), decoderOfCodec(codec));
@@ -79,6 +91,8 @@ public class CodecUtils {
         var pair = getOpsAndAdapter(unpackedSerializer, ctx);
 
         if (pair == null || !(unpackedSerializer instanceof SelfDescribedSerializer<S> selfDescribedSerializer)) {
+            // the codec needs its output to exist as a tree before it can be written,
+            // see toEndec - EdmEndec then writes it without any further copy
             EdmEndec.INSTANCE.encode(ctx, serializer, codec.encodeStart(createEdmOps(ctx), value).getOrThrow());
         } else {
             var ops = pair.getFirst();
@@ -101,23 +115,27 @@ public class CodecUtils {
             : codec.parse(pair.getFirst(), copyDecodedValue(pair.getSecond(), selfDescribedDeserializer)).getOrThrow();
     }
 
+    /**
+     * Like {@link #toEndec(Codec)}, but uses {@code packetCodec} when
+     * (de-)serializing from a {@link ByteBufSerializer} or {@link ByteBufDeserializer}.
+     * The packet codec writes directly into the serializer's buffer, see
+     * {@link #writeLengthPrefixed(ByteBuf, Consumer)} for the details
+     */
     public static <T> Endec<T> toEndec(Codec<T> codec, PacketCodec<ByteBuf, T> packetCodec) {
         var encoder = encoderOfCodec(codec);
         var decoder = decoderOfCodec(codec);
 
         return Endec.of(
             (ctx, serializer, value) -> {
-                if (serializer instanceof ByteBufSerializer<?>) {
-                    var buffer = new PacketByteBuf(Unpooled.buffer());
-                    packetCodec.encode(buffer, value);
-                    MinecraftEndecs.PACKET_BYTE_BUF.encode(ctx, serializer, buffer);
+                if (serializer instanceof ByteBufSerializer<?> byteBufSerializer) {
+                    writeLengthPrefixed(byteBufSerializer.result(), buffer -> packetCodec.encode(buffer, value));
                 } else {
                     encoder.encode(ctx, serializer, value);
                 }
             },
             (ctx, deserializer) -> {
                 if (deserializer instanceof ByteBufDeserializer) {
-                    return packetCodec.decode(MinecraftEndecs.PACKET_BYTE_BUF.decode(ctx, deserializer));
+                    return packetCodec.decode(Unpooled.wrappedBuffer(deserializer.readBytes(ctx)));
                 } else {
                     return decoder.decode(ctx, deserializer);
                 }
@@ -125,18 +143,20 @@ public class CodecUtils {
         );
     }
 
+    /**
+     * Like {@link #toEndec(Codec, PacketCodec)}, but for packet codecs which require
+     * registry access. The registries are taken from the {@link RegistriesAttribute}
+     * of the serialization context
+     */
     public static <T> Endec<T> toEndecWithRegistries(Codec<T> codec, PacketCodec<RegistryByteBuf, T> packetCodec) {
         var encoder = encoderOfCodec(codec);
         var decoder = decoderOfCodec(codec);
 
         return Endec.of(
             (ctx, serializer, value) -> {
-                if (serializer instanceof ByteBufSerializer<?>) {
-                    var buffer = new RegistryByteBuf(new PacketByteBuf(Unpooled.buffer()), ctx.requireAttributeValue(RegistriesAttribute.REGISTRIES).registryManager());
-
-                    packetCodec.encode(buffer, value);
-
-                    MinecraftEndecs.PACKET_BYTE_BUF.encode(ctx, serializer, buffer);
+                if (serializer instanceof ByteBufSerializer<?> byteBufSerializer) {
+                    var registries = ctx.requireAttributeValue(RegistriesAttribute.REGISTRIES).registryManager();
+                    writeLengthPrefixed(byteBufSerializer.result(), buffer -> packetCodec.encode(new RegistryByteBuf(buffer, registries), value));
                 } else {
                     encoder.encode(ctx, serializer, value);
                 }
@@ -145,7 +165,7 @@ public class CodecUtils {
                 if (deserializer instanceof ByteBufDeserializer) {
                     return packetCodec.decode(
                         new RegistryByteBuf(
-                            MinecraftEndecs.PACKET_BYTE_BUF.decode(ctx, deserializer),
+                            Unpooled.wrappedBuffer(deserializer.readBytes(ctx)),
                             ctx.requireAttributeValue(RegistriesAttribute.REGISTRIES).registryManager()
                         ));
                 } else {
@@ -155,6 +175,41 @@ public class CodecUtils {
         );
     }
 
+    /**
+     * Write the data produced by {@code writer} into {@code buffer}, prefixed by its length
+     * as a VarInt - which is exactly how {@link Endec#BYTES} lays out a byte array.
+     * <p>
+     * Instead of encoding into a temporary buffer first, a single byte is reserved for the
+     * length upfront and patched once {@code writer} is done. This covers data shorter than
+     * 128 bytes, like most item stacks and texts, without any copying or padding. Longer data is
+     * moved into a pooled buffer and rewritten behind a prefix of its actual length, so the output
+     * never carries padding bytes - at the cost of one copy for data which is large anyway
+     */
+    private static void writeLengthPrefixed(ByteBuf buffer, Consumer<ByteBuf> writer) {
+        int prefixIndex = buffer.writerIndex();
+        buffer.writeByte(0);
+
+        int dataIndex = buffer.writerIndex();
+        writer.accept(buffer);
+
+        int length = buffer.writerIndex() - dataIndex;
+        if (length < 0x80) {
+            buffer.setByte(prefixIndex, length);
+            return;
+        }
+
+        var data = PooledByteBufAllocator.DEFAULT.buffer(length);
+        try {
+            buffer.getBytes(dataIndex, data, length);
+
+            buffer.writerIndex(prefixIndex);
+            VarInts.write(buffer, length);
+            buffer.writeBytes(data);
+        } finally {
+            data.release();
+        }
+    }
+
     /**
      * Create an endec which serializes an instance of {@link Either}, using {@code first}
      * for the left and {@code second} for the right variant
@@ -382,6 +437,9 @@ public class CodecUtils {
                     ? SerializationContext.attributes(RegistriesAttribute.of(registryByteBuf.getRegistryManager()))
                     : SerializationContext.empty();
 
+                var dictionary = IdentifierDictionary.decodingDictionary();
+                if (dictionary != null) ctx = ctx.withAttributes(dictionary);
+
                 return endec.decode(ctx, ByteBufDeserializer.of(buf));
             }
 
@@ -391,6 +449,9 @@ public class CodecUtils {
                     ? SerializationContext.attributes(RegistriesAttribute.of(registryByteBuf.getRegistryManager()))
                     : SerializationContext.empty();
 
+                var dictionary = IdentifierDictionary.encodingDictionary();
+                if (dictionary != null) ctx = ctx.withAttributes(dictionary);
+
                 endec.encode(ctx, ByteBufSerializer.of(buf), value);
             }
         };
@@ -545,13 +606,11 @@ public class CodecUtils {
     //--
 
     private static <T, S extends SelfDescribedSerializer<T>> void encodeValue(CodecAdapter<T, S, ?> adapter, S serializer, T value) {
-        adapter.createDeserializer(value).readAny(SerializationContext.empty(), serializer);
+        adapter.writeValue(SerializationContext.empty(), serializer, value);
     }
 
     private static <T, D extends SelfDescribedDeserializer<T>> T copyDecodedValue(CodecAdapter<T, ?, D> adapter, D deserializer) {
-        var serializer = adapter.createSerializer();
-        deserializer.readAny(SerializationContext.empty(), serializer);
-        return serializer.result();
+        return adapter.readValue(SerializationContext.empty(), deserializer);
     }
 
     private static <T, V, S extends SelfDescribedSerializer<T>> void encodeStruct(CodecAdapter<T, S, ?> adapter, DynamicOps<T> ops, S serializer, Serializer.Struct struct, MapCodec<V> mapCodec, V value) {
@@ -584,6 +643,28 @@ public class CodecUtils {
 
         void encodeStruct(SerializationContext ctx, S serializer, Serializer.Struct struct, T value);
         T copyDecodedStruct(SerializationContext ctx, D serializer, Deserializer.Struct struct);
+
+        // ---
+
+        /**
+         * Write a value produced by a codec into the given serializer. By default, the value is
+         * copied element by element - adapters whose serializer can adopt the value directly
+         * should override this to avoid building the same tree twice
+         */
+        default void writeValue(SerializationContext ctx, S serializer, T value) {
+            this.createDeserializer(value).readAny(ctx, serializer);
+        }
+
+        /**
+         * Read the current value of the given deserializer so it can be parsed by a codec. By default,
+         * the value is copied element by element - adapters whose deserializer can expose the value
+         * directly should override this to avoid building the same tree twice
+         */
+        default T readValue(SerializationContext ctx, D deserializer) {
+            var serializer = this.createSerializer();
+            deserializer.readAny(ctx, serializer);
+            return serializer.result();
+        }
     }
 
     static {
@@ -663,6 +744,16 @@ public class CodecUtils {
             public NbtElement copyDecodedStruct(SerializationContext ctx, NbtDeserializer deserializer, Deserializer.Struct struct) {
                 return NbtEndec.COMPOUND.decode(ctx, deserializer);
             }
+
+            @Override
+            public void writeValue(SerializationContext ctx, NbtSerializer serializer, NbtElement value) {
+                serializer.writeElement(ctx, value);
+            }
+
+            @Override
+            public NbtElement readValue(SerializationContext ctx, NbtDeserializer deserializer) {
+                return deserializer.readElement(ctx);
+            }
         });
 
         registerCodecAdapter(new CodecAdapter<JsonElement, GsonSerializer, GsonDeserializer>() {
@@ -0,0 +1,190 @@
+package io.wispforest.owo.serialization;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import io.wispforest.endec.*;
+import io.wispforest.owo.network.OwoClientConnectionExtension;
+import io.wispforest.owo.network.ServerboundRateLimiter;
+import io.wispforest.owo.util.OwoFreezer;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import net.minecraft.network.ClientConnection;
+import net.minecraft.registry.Registry;
+import net.minecraft.util.Identifier;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * A session-scoped table of frequently sent identifiers. After the server has sent
+ * its dictionary to a client during configuration, {@link io.wispforest.owo.serialization.endec.MinecraftEndecs#IDENTIFIER}
+ * writes every identifier contained in it as a short index token instead of its full string
+ * on that connection
+ * <p>
+ * Index tokens are encoded as strings starting with {@code #} - since that character is
+ * not valid in an identifier, the decoder can tell tokens and literal identifiers apart without
+ * any further framing. Data which was encoded without a dictionary, like pre-encoded broadcasts,
+ * thus stays readable on connections which use one, while a token read without a dictionary
+ * is rejected instead of being mistaken for an identifier in the {@code minecraft} namespace
+ * <p>
+ * Independent of dictionaries, all identifiers decoded through {@code IDENTIFIER} are interned
+ */
+public final class IdentifierDictionary implements SerializationAttribute.Instance {
+
+    public static final SerializationAttribute.WithValue<IdentifierDictionary> DICTIONARY = SerializationAttribute.withValue("identifier_dictionary");
+
+    /**
+     * The connection whose packets are currently being encoded on this thread,
+     * set by {@code EncoderHandlerMixin} for the duration of each encode call
+     */
+    @ApiStatus.Internal
+    public static final ThreadLocal<ClientConnection> ENCODING_CONNECTION = new ThreadLocal<>();
+
+    private static final char TOKEN_PREFIX = '#';
+
+    private static final Interner<Identifier> INTERNER = Interners.newWeakInterner();
+
+    private static final Set<Identifier> ADDITIONAL_ENTRIES = new LinkedHashSet<>();
+    private static final List<Registry<?>> REGISTRIES = new ArrayList<>();
+
+    private final List<Identifier> entries;
+    private final Object2IntMap<Identifier> indices;
+    private final Map<String, Identifier> byString;
+
+    public IdentifierDictionary(Collection<Identifier> entries) {
+        this.entries = List.copyOf(new LinkedHashSet<>(entries));
+
+        this.indices = new Object2IntOpenHashMap<>(this.entries.size());
+        this.indices.defaultReturnValue(-1);
+        this.byString = new HashMap<>(this.entries.size());
+
+        for (int i = 0; i < this.entries.size(); i++) {
+            var entry = intern(this.entries.get(i));
+
+            this.indices.put(entry, i);
+            this.byString.put(entry.toString(), entry);
+        }
+    }
+
+    // ------------
+    // Registration
+    // ------------
+
+    /**
+     * Add the given identifiers to the dictionary the server sends to its clients.
+     * Owo already includes the ids of all network channels and particle system controllers
+     */
+    public static void register(Identifier... identifiers) {
+        OwoFreezer.checkRegister("Identifier dictionary entries");
+        ADDITIONAL_ENTRIES.addAll(Arrays.asList(identifiers));
+    }
+
+    /**
+     * Add the ids of all entries in {@code registry} to the dictionary the server sends
+     * to its clients. Since the dictionary is transmitted once per connection, this is only
+     * worthwhile for registries whose entries are sent frequently
+     */
+    public static void registerRegistry(Registry<?> registry) {
+        OwoFreezer.checkRegister("Identifier dictionary registries");
+        REGISTRIES.add(registry);
+    }
+
+    @ApiStatus.Internal
+    public static IdentifierDictionary createServerDictionary(Collection<Identifier> builtinEntries) {
+        var entries = new LinkedHashSet<>(builtinEntries);
+        entries.addAll(ADDITIONAL_ENTRIES);
+        for (var registry : REGISTRIES) {
+            entries.addAll(registry.getIds());
+        }
+
+        return new IdentifierDictionary(entries);
+    }
+
+    // ---------
+    // Transport
+    // ---------
+
+    @ApiStatus.Internal
+    public static @Nullable IdentifierDictionary encodingDictionary() {
+        var connection = ENCODING_CONNECTION.get();
+        return connection != null ? ((OwoClientConnectionExtension) connection).owo$getEncodingDictionary() : null;
+    }
+
+    @ApiStatus.Internal
+    public static @Nullable IdentifierDictionary decodingDictionary() {
+        var connection = ServerboundRateLimiter.DECODING_CONNECTION.get();
+        return connection != null ? ((OwoClientConnectionExtension) connection).owo$getDecodingDictionary() : null;
+    }
+
+    @ApiStatus.Internal
+    public static void write(SerializationContext ctx, Serializer<?> serializer, Identifier identifier) {
+        var dictionary = ctx.getAttributeValue(DICTIONARY);
+        if (dictionary != null && !(serializer instanceof SelfDescribedSerializer<?>)) {
+            int index = dictionary.indices.getInt(identifier);
+            if (index != -1) {
+                serializer.writeString(ctx, TOKEN_PREFIX + Integer.toString(index, Character.MAX_RADIX));
+                return;
+            }
+        }
+
+        serializer.writeString(ctx, identifier.toString());
+    }
+
+    @ApiStatus.Internal
+    public static Identifier read(SerializationContext ctx, Deserializer<?> deserializer) {
+        var string = deserializer.readString(ctx);
+
+        var dictionary = !(deserializer instanceof SelfDescribedDeserializer<?>) ? ctx.getAttributeValue(DICTIONARY) : null;
+        if (!string.isEmpty() && string.charAt(0) == TOKEN_PREFIX) {
+            if (dictionary == null) {
+                throw new IllegalStateException("Received identifier dictionary token '" + string + "' without a dictionary");
+            }
+
+            return dictionary.resolve(string.substring(1));
+        }
+
+        if (dictionary != null) {
+            var entry = dictionary.byString.get(string);
+            if (entry != null) return entry;
+        }
+
+        return intern(Identifier.of(string));
+    }
+
+    private Identifier resolve(String token) {
+        int index;
+        try {
+            index = Integer.parseInt(token, Character.MAX_RADIX);
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Malformed identifier dictionary token '" + token + "'");
+        }
+
+        if (index < 0 || index >= this.entries.size()) {
+            throw new IllegalStateException("Identifier dictionary index " + index + " out of bounds for dictionary of size " + this.entries.size());
+        }
+
+        return this.entries.get(index);
+    }
+
+    /**
+     * @return The canonical instance of the given identifier
+     */
+    public static Identifier intern(Identifier identifier) {
+        return INTERNER.intern(identifier);
+    }
+
+    public List<Identifier> entries() {
+        return this.entries;
+    }
+
+    @Override
+    public SerializationAttribute attribute() {
+        return DICTIONARY;
+    }
+
+    @Override
+    public Object value() {
+        return this;
+    }
+}
@@ -0,0 +1,292 @@
+package io.wispforest.owo.serialization.endec;
+
+import io.wispforest.endec.*;
+import io.wispforest.endec.annotations.NullableComponent;
+import io.wispforest.endec.impl.RecordEndec;
+import io.wispforest.endec.impl.ReflectiveEndecBuilder;
+import io.wispforest.owo.Owo;
+import io.wispforest.owo.util.OwoFreezer;
+import org.jetbrains.annotations.Nullable;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * An alternative to {@link RecordEndec} which, instead of invoking record accessors and
+ * the canonical constructor reflectively, generates a hidden class per record type that
+ * calls them directly. This allows the JIT to inline the entire encode and decode path
+ * <p>
+ * The serialized representation is identical to that of {@link RecordEndec}. Since generating
+ * classes at runtime is not free and not every environment allows it, this backend is opt-in
+ * through the {@code owo.compiledRecordEndecs} system property - when it is not set, or the
+ * record type cannot be compiled, all methods in this class fall back to {@link RecordEndec}
+ * <p>
+ * When the {@code owo.endecTimings} system property is set, the time spent deriving
+ * endecs through this class during mod initialization is logged per class once services freeze
+ */
+public final class CompiledRecordEndec {
+
+    /**
+     * Whether record endecs created through this class are compiled
+     */
+    public static final boolean ENABLED = Boolean.getBoolean("owo.compiledRecordEndecs");
+
+    private static final boolean REPORT_TIMINGS = Boolean.getBoolean("owo.endecTimings");
+    private static final Map<Class<?>, long[]> DERIVATION_TIMINGS = new ConcurrentHashMap<>();
+
+    static {
+        if (REPORT_TIMINGS) OwoFreezer.registerFreezeCallback(CompiledRecordEndec::reportTimings);
+    }
+
+    private static final ClassValue<@Nullable MethodHandle> FACTORIES = new ClassValue<>() {
+        @Override
+        protected @Nullable MethodHandle computeValue(Class<?> type) {
+            try {
+                return generate(type);
+            } catch (Throwable e) {
+                Owo.LOGGER.warn("Could not compile endec for record {}, falling back to reflection", type.getName(), e);
+                return null;
+            }
+        }
+    };
+
+    private CompiledRecordEndec() {}
+
+    /**
+     * Create an endec for the given record class. If compiled record endecs are
+     * enabled, this is a generated endec - otherwise it is the same as {@link RecordEndec#create(ReflectiveEndecBuilder, Class)}
+     *
+     * @param builder     The builder used to obtain the endecs of all record components
+     * @param recordClass The record class to create an endec for
+     */
+    public static <R extends Record> StructEndec<R> create(ReflectiveEndecBuilder builder, Class<R> recordClass) {
+        long start = System.nanoTime();
+
+        var compiled = ENABLED ? compile(builder, recordClass) : null;
+        var endec = compiled != null ? compiled : RecordEndec.create(builder, recordClass);
+
+        recordTiming(recordClass, start);
+        return endec;
+    }
+
+    /**
+     * Obtain the endec for the given class from {@code builder}. If that
+     * endec is a {@link RecordEndec} and compiled record endecs are enabled,
+     * a compiled endec is returned in its place
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Endec<T> get(ReflectiveEndecBuilder builder, Class<T> clazz) {
+        long start = System.nanoTime();
+
+        var endec = builder.get(clazz);
+        if (ENABLED && endec instanceof RecordEndec<?>) {
+            var compiled = compile(builder, (Class<? extends Record>) clazz);
+            if (compiled != null) endec = (Endec<T>) compiled;
+        }
+
+        recordTiming(clazz, start);
+        return endec;
+    }
+
+    private static void recordTiming(Class<?> clazz, long start) {
+        if (!REPORT_TIMINGS || OwoFreezer.isFrozen()) return;
+
+        long nanos = System.nanoTime() - start;
+        DERIVATION_TIMINGS.merge(clazz, new long[]{nanos, 1}, (timing, added) -> {
+            timing[0] += added[0];
+            timing[1]++;
+            return timing;
+        });
+    }
+
+    private static void reportTimings() {
+        long totalNanos = DERIVATION_TIMINGS.values().stream().mapToLong(timing -> timing[0]).sum();
+        Owo.LOGGER.info("Deriving endecs for {} classes took {} ms", DERIVATION_TIMINGS.size(), String.format("%.2f", totalNanos / 1_000_000d));
+
+        DERIVATION_TIMINGS.entrySet().stream()
+                .sorted(Map.Entry.<Class<?>, long[]>comparingByValue(Comparator.comparingLong((long[] timing) -> timing[0])).reversed())
+                .forEach(entry -> Owo.LOGGER.info(" - {}: {} ms ({}x)", entry.getKey().getName(), String.format("%.2f", entry.getValue()[0] / 1_000_000d), entry.getValue()[1]));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <R extends Record> @Nullable StructEndec<R> compile(ReflectiveEndecBuilder builder, Class<R> recordClass) {
+        var factory = FACTORIES.get(recordClass);
+        if (factory == null) return null;
+
+        var components = recordClass.getRecordComponents();
+        var endecs = new Endec<?>[components.length];
+
+        for (int i = 0; i < components.length; i++) {
+            var endec = builder.get(components[i].getGenericType());
+            endecs[i] = components[i].isAnnotationPresent(NullableComponent.class) ? endec.nullableOf() : endec;
+        }
+
+        try {
+            return (StructEndec<R>) factory.invoke(endecs);
+        } catch (Throwable e) {
+            throw new IllegalStateException("Failed to instantiate compiled endec for record " + recordClass.getName(), e);
+        }
+    }
+
+    // ---
+
+    private static final String ENDEC_DESCRIPTOR = Type.getDescriptor(Endec.class);
+
+    /**
+     * Generate and define a hidden class implementing {@link StructEndec} for the given record,
+     * which stores the endec of each component in a final field and encodes as follows:
+     * <pre>{@code
+     * struct.field("a", ctx, this.endec0, value.a(), false);
+     * struct.field("b", ctx, this.endec1, value.b(), false);
+     * }</pre>
+     * and decodes as follows:
+     * <pre>{@code
+     * return new Record(struct.field("a", ctx, this.endec0, null), struct.field("b", ctx, this.endec1, null));
+     * }</pre>
+     *
+     * @return A handle to the constructor of the generated class, which takes the array of component endecs
+     */
+    private static MethodHandle generate(Class<?> recordClass) throws ReflectiveOperationException {
+        var components = recordClass.getRecordComponents();
+        var recordName = Type.getInternalName(recordClass);
+
+        var encodeStruct = StructEndec.class.getMethod("encodeStruct", SerializationContext.class, Serializer.class, Serializer.Struct.class, Object.class);
+        var decodeStruct = StructEndec.class.getMethod("decodeStruct", SerializationContext.class, Deserializer.class, Deserializer.Struct.class);
+        var encodeField = Serializer.Struct.class.getMethod("field", String.class, SerializationContext.class, Endec.class, Object.class, boolean.class);
+        var decodeField = Deserializer.Struct.class.getMethod("field", String.class, SerializationContext.class, Endec.class, Supplier.class);
+
+        var writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        var className = recordName + "$OwoCompiledEndec";
+        writer.visit(Opcodes.V17, Opcodes.ACC_FINAL | Opcodes.ACC_SUPER, className, null, "java/lang/Object", new String[]{Type.getInternalName(StructEndec.class)});
+
+        for (int i = 0; i < components.length; i++) {
+            writer.visitField(Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL, "endec" + i, ENDEC_DESCRIPTOR, null, null).visitEnd();
+        }
+
+        // constructor
+        var init = writer.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "([" + ENDEC_DESCRIPTOR + ")V", null, null);
+        init.visitCode();
+        init.visitVarInsn(Opcodes.ALOAD, 0);
+        init.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+
+        for (int i = 0; i < components.length; i++) {
+            init.visitVarInsn(Opcodes.ALOAD, 0);
+            init.visitVarInsn(Opcodes.ALOAD, 1);
+            init.visitLdcInsn(i);
+            init.visitInsn(Opcodes.AALOAD);
+            init.visitFieldInsn(Opcodes.PUTFIELD, className, "endec" + i, ENDEC_DESCRIPTOR);
+        }
+
+        init.visitInsn(Opcodes.RETURN);
+        init.visitMaxs(0, 0);
+        init.visitEnd();
+
+        // encodeStruct(ctx, serializer, struct, value)
+        var encode = writer.visitMethod(Opcodes.ACC_PUBLIC, encodeStruct.getName(), Type.getMethodDescriptor(encodeStruct), null, null);
+        encode.visitCode();
+
+        for (int i = 0; i < components.length; i++) {
+            var accessor = components[i].getAccessor();
+
+            encode.visitVarInsn(Opcodes.ALOAD, 3);
+            encode.visitLdcInsn(components[i].getName());
+            encode.visitVarInsn(Opcodes.ALOAD, 1);
+            encode.visitVarInsn(Opcodes.ALOAD, 0);
+            encode.visitFieldInsn(Opcodes.GETFIELD, className, "endec" + i, ENDEC_DESCRIPTOR);
+
+            encode.visitVarInsn(Opcodes.ALOAD, 4);
+            encode.visitTypeInsn(Opcodes.CHECKCAST, recordName);
+            encode.visitMethodInsn(Opcodes.INVOKEVIRTUAL, recordName, accessor.getName(), Type.getMethodDescriptor(accessor), false);
+            box(encode, Type.getType(components[i].getType()));
+
+            encode.visitInsn(Opcodes.ICONST_0);
+            invokeInterface(encode, encodeField);
+            encode.visitInsn(Opcodes.POP);
+        }
+
+        encode.visitInsn(Opcodes.RETURN);
+        encode.visitMaxs(0, 0);
+        encode.visitEnd();
+
+        // decodeStruct(ctx, deserializer, struct)
+        var decode = writer.visitMethod(Opcodes.ACC_PUBLIC, decodeStruct.getName(), Type.getMethodDescriptor(decodeStruct), null, null);
+        decode.visitCode();
+        decode.visitTypeInsn(Opcodes.NEW, recordName);
+        decode.visitInsn(Opcodes.DUP);
+
+        var constructorArgs = new Type[components.length];
+        for (int i = 0; i < components.length; i++) {
+            constructorArgs[i] = Type.getType(components[i].getType());
+
+            decode.visitVarInsn(Opcodes.ALOAD, 3);
+            decode.visitLdcInsn(components[i].getName());
+            decode.visitVarInsn(Opcodes.ALOAD, 1);
+            decode.visitVarInsn(Opcodes.ALOAD, 0);
+            decode.visitFieldInsn(Opcodes.GETFIELD, className, "endec" + i, ENDEC_DESCRIPTOR);
+            decode.visitInsn(Opcodes.ACONST_NULL);
+            invokeInterface(decode, decodeField);
+
+            unbox(decode, constructorArgs[i]);
+        }
+
+        decode.visitMethodInsn(Opcodes.INVOKESPECIAL, recordName, "<init>", Type.getMethodDescriptor(Type.VOID_TYPE, constructorArgs), false);
+        decode.visitInsn(Opcodes.ARETURN);
+        decode.visitMaxs(0, 0);
+        decode.visitEnd();
+
+        writer.visitEnd();
+
+        // the generated class must be a nestmate of the record, otherwise it
+        // could not invoke the constructor of a private record - which only fails
+        // once the first message is decoded and thus never falls back to reflection
+        var lookup = MethodHandles.privateLookupIn(recordClass, MethodHandles.lookup())
+                .defineHiddenClass(writer.toByteArray(), true, MethodHandles.Lookup.ClassOption.NESTMATE);
+
+        return lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class, Endec[].class));
+    }
+
+    private static void invokeInterface(MethodVisitor method, Method target) {
+        method.visitMethodInsn(Opcodes.INVOKEINTERFACE, Type.getInternalName(target.getDeclaringClass()), target.getName(), Type.getMethodDescriptor(target), true);
+    }
+
+    private static void box(MethodVisitor method, Type type) {
+        if (type.getSort() != Type.OBJECT && type.getSort() != Type.ARRAY) {
+            var wrapper = wrapperOf(type);
+            method.visitMethodInsn(Opcodes.INVOKESTATIC, wrapper, "valueOf", Type.getMethodDescriptor(Type.getObjectType(wrapper), type), false);
+        }
+    }
+
+    private static void unbox(MethodVisitor method, Type type) {
+        if (type.getSort() == Type.OBJECT || type.getSort() == Type.ARRAY) {
+            method.visitTypeInsn(Opcodes.CHECKCAST, type.getInternalName());
+        } else {
+            var wrapper = wrapperOf(type);
+            method.visitTypeInsn(Opcodes.CHECKCAST, wrapper);
+            method.visitMethodInsn(Opcodes.INVOKEVIRTUAL, wrapper, type.getClassName() + "Value", Type.getMethodDescriptor(type), false);
+        }
+    }
+
+    private static String wrapperOf(Type primitive) {
+        return switch (primitive.getSort()) {
+            case Type.BOOLEAN -> "java/lang/Boolean";
+            case Type.CHAR -> "java/lang/Character";
+            case Type.BYTE -> "java/lang/Byte";
+            case Type.SHORT -> "java/lang/Short";
+            case Type.INT -> "java/lang/Integer";
+            case Type.FLOAT -> "java/lang/Float";
+            case Type.LONG -> "java/lang/Long";
+            case Type.DOUBLE -> "java/lang/Double";
+            default -> throw new IllegalArgumentException("Not a primitive type: " + primitive);
+        };
+    }
+}
@@ -0,0 +1,70 @@
+package io.wispforest.owo.serialization.endec;
+
+import io.wispforest.endec.Endec;
+import io.wispforest.endec.impl.ReflectiveEndecBuilder;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.Supplier;
+
+/**
+ * A handle to a {@link ReflectiveEndecBuilder} which, until its owner registers
+ * endecs of its own, reads from a builder that is set up once and shared by all handles
+ * with the same defaults. Only on the first call to {@link #mutable()} is a private
+ * builder created for this handle
+ * <p>
+ * The shared builders must never be modified, which is why {@link #get()} may only
+ * be used for looking up endecs
+ */
+@ApiStatus.Internal
+public final class CopyOnWriteEndecBuilder {
+
+    private static final Supplier<ReflectiveEndecBuilder> DEFAULTS = () -> MinecraftEndecs.addDefaults(new ReflectiveEndecBuilder());
+    private static final Supplier<ReflectiveEndecBuilder> NETWORK_DEFAULTS = () -> new ReflectiveEndecBuilder(builder -> {
+        builder.register(Endec.VAR_INT, Integer.class, int.class);
+        builder.register(Endec.VAR_LONG, Long.class, long.class);
+        MinecraftEndecs.addDefaults(builder);
+    });
+
+    private static final ReflectiveEndecBuilder SHARED_DEFAULTS = DEFAULTS.get();
+    private static final ReflectiveEndecBuilder SHARED_NETWORK_DEFAULTS = NETWORK_DEFAULTS.get();
+
+    private final ReflectiveEndecBuilder shared;
+    private final Supplier<ReflectiveEndecBuilder> factory;
+    private @Nullable ReflectiveEndecBuilder own = null;
+
+    private CopyOnWriteEndecBuilder(ReflectiveEndecBuilder shared, Supplier<ReflectiveEndecBuilder> factory) {
+        this.shared = shared;
+        this.factory = factory;
+    }
+
+    /**
+     * @return A handle to a builder with the defaults from {@link MinecraftEndecs#addDefaults(ReflectiveEndecBuilder)}
+     */
+    public static CopyOnWriteEndecBuilder defaults() {
+        return new CopyOnWriteEndecBuilder(SHARED_DEFAULTS, DEFAULTS);
+    }
+
+    /**
+     * @return A handle to a builder with the defaults from {@link MinecraftEndecs#addDefaults(ReflectiveEndecBuilder)}
+     * which additionally encodes all {@code int}s and {@code long}s as var-ints
+     */
+    public static CopyOnWriteEndecBuilder networkDefaults() {
+        return new CopyOnWriteEndecBuilder(SHARED_NETWORK_DEFAULTS, NETWORK_DEFAULTS);
+    }
+
+    /**
+     * @return The builder to look up endecs in. This must not be modified
+     */
+    public ReflectiveEndecBuilder get() {
+        return this.own != null ? this.own : this.shared;
+    }
+
+    /**
+     * @return The private builder of this handle, which is created upon first invocation
+     */
+    public ReflectiveEndecBuilder mutable() {
+        if (this.own == null) this.own = this.factory.get();
+        return this.own;
+    }
+}
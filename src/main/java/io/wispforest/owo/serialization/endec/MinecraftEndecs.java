@@ -6,6 +6,7 @@ import io.wispforest.endec.SerializationAttributes;
 import io.wispforest.endec.impl.ReflectiveEndecBuilder;
 import io.wispforest.endec.impl.StructEndecBuilder;
 import io.wispforest.owo.serialization.CodecUtils;
+import io.wispforest.owo.serialization.IdentifierDictionary;
 import net.fabricmc.fabric.api.networking.v1.PacketByteBufs;
 import net.minecraft.item.ItemStack;
 import net.minecraft.network.PacketByteBuf;
@@ -46,7 +47,11 @@ public final class MinecraftEndecs {
                 return bytes;
             });
 
-    public static final Endec<Identifier> IDENTIFIER = Endec.STRING.xmap(Identifier::of, Identifier::toString);
+    /**
+     * Encodes identifiers as their string form, or as a dictionary index on connections
+     * which negotiated an {@link IdentifierDictionary}. Decoded identifiers are interned
+     */
+    public static final Endec<Identifier> IDENTIFIER = Endec.of(IdentifierDictionary::write, IdentifierDictionary::read);
     public static final Endec<ItemStack> ITEM_STACK = CodecUtils.toEndecWithRegistries(ItemStack.OPTIONAL_CODEC, ItemStack.OPTIONAL_PACKET_CODEC);
     public static final Endec<Text> TEXT = CodecUtils.toEndec(TextCodecs.CODEC, TextCodecs.PACKET_CODEC);
 
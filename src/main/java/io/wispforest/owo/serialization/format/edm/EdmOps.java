@@ -4,15 +4,26 @@ import com.mojang.datafixers.DataFixUtils;
 import com.mojang.datafixers.util.Pair;
 import com.mojang.serialization.DataResult;
 import com.mojang.serialization.DynamicOps;
+import com.mojang.serialization.MapLike;
+import com.mojang.serialization.RecordBuilder;
 import io.wispforest.endec.SerializationContext;
 import io.wispforest.endec.format.edm.EdmElement;
 import io.wispforest.owo.serialization.format.ContextHolder;
+import org.jetbrains.annotations.Nullable;
 
 import java.nio.ByteBuffer;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
+/**
+ * {@link DynamicOps} over endec's {@link EdmElement}s
+ * <p>
+ * Lists and maps built through {@link #listBuilder()} and {@link #mapBuilder()} are
+ * accumulated in a single mutable collection and merged into their prefix once, so building
+ * large collections element by element takes linear time. Likewise, {@link #getMap(EdmElement)}
+ * and {@link #getList(EdmElement)} are views of the underlying collections instead of copies
+ */
 public class EdmOps implements DynamicOps<EdmElement<?>>, ContextHolder {
 
     private static final EdmOps NO_CONTEXT = new EdmOps(SerializationContext.empty());
@@ -107,9 +118,27 @@ public class EdmOps implements DynamicOps<EdmElement<?>>, ContextHolder {
         }
     }
 
+    @Override
+    public DataResult<EdmElement<?>> mergeToList(EdmElement<?> list, List<EdmElement<?>> values) {
+        if (list == empty()) {
+            return DataResult.success(EdmElement.sequence(new ArrayList<>(values)));
+        } else if (list.value() instanceof List<?> properList) {
+            var newList = new ArrayList<EdmElement<?>>(properList.size() + values.size());
+            newList.addAll((Collection<? extends EdmElement<?>>) properList);
+            newList.addAll(values);
+
+            return DataResult.success(EdmElement.sequence(newList));
+        } else {
+            return DataResult.error(() -> "Not a sequence: " + list);
+        }
+    }
+
     @Override
     public EdmElement<?> createMap(Stream<Pair<EdmElement<?>, EdmElement<?>>> map) {
-        return EdmElement.consumeMap(map.collect(Collectors.toMap(pair -> pair.getFirst().cast(), Pair::getSecond)));
+        var result = new HashMap<String, EdmElement<?>>();
+        map.forEach(pair -> result.put(pair.getFirst().cast(), pair.getSecond()));
+
+        return EdmElement.consumeMap(result);
     }
 
     @Override
@@ -130,6 +159,41 @@ public class EdmOps implements DynamicOps<EdmElement<?>>, ContextHolder {
         }
     }
 
+    @Override
+    public DataResult<EdmElement<?>> mergeToMap(EdmElement<?> map, Map<EdmElement<?>, EdmElement<?>> values) {
+        return this.mergeToMap(map, MapLike.forMap(values, this));
+    }
+
+    @Override
+    public DataResult<EdmElement<?>> mergeToMap(EdmElement<?> map, MapLike<EdmElement<?>> values) {
+        HashMap<String, EdmElement<?>> newMap;
+        if (map == empty()) {
+            newMap = new HashMap<>();
+        } else if (map.value() instanceof Map<?, ?> properMap) {
+            newMap = new HashMap<>((Map<String, ? extends EdmElement<?>>) properMap);
+        } else {
+            return DataResult.error(() -> "Not a map: " + map);
+        }
+
+        var invalidKeys = new ArrayList<EdmElement<?>>();
+        values.entries().forEach(entry -> {
+            if (entry.getFirst().value() instanceof String key) {
+                newMap.put(key, entry.getSecond());
+            } else {
+                invalidKeys.add(entry.getFirst());
+            }
+        });
+
+        return invalidKeys.isEmpty()
+                ? DataResult.success(EdmElement.consumeMap(newMap))
+                : DataResult.error(() -> "Keys are not strings: " + invalidKeys, EdmElement.consumeMap(newMap));
+    }
+
+    @Override
+    public RecordBuilder<EdmElement<?>> mapBuilder() {
+        return new EdmRecordBuilder();
+    }
+
     // --- Deserialization ---
 
     @Override
@@ -195,6 +259,29 @@ public class EdmOps implements DynamicOps<EdmElement<?>>, ContextHolder {
         }
     }
 
+    @Override
+    public DataResult<Consumer<Consumer<EdmElement<?>>>> getList(EdmElement<?> input) {
+        if (input == this.empty()) {
+            return DataResult.success(consumer -> {});
+        } else if (input.value() instanceof List<?> list) {
+            var elements = (List<EdmElement<?>>) list;
+            return DataResult.success(elements::forEach);
+        } else {
+            return DataResult.error(() -> "Not a sequence: " + input);
+        }
+    }
+
+    @Override
+    public DataResult<MapLike<EdmElement<?>>> getMap(EdmElement<?> input) {
+        if (input == this.empty()) {
+            return DataResult.success(MapLike.forMap(Map.of(), this));
+        } else if (input.value() instanceof Map<?, ?> map) {
+            return DataResult.success(new MapView((Map<String, EdmElement<?>>) map));
+        } else {
+            return DataResult.error(() -> "Not a map: " + input);
+        }
+    }
+
     // ---
 
     @Override
@@ -228,4 +315,61 @@ public class EdmOps implements DynamicOps<EdmElement<?>>, ContextHolder {
             return input;
         }
     }
+
+    // ---
+
+    private class EdmRecordBuilder extends RecordBuilder.AbstractStringBuilder<EdmElement<?>, Map<String, EdmElement<?>>> {
+
+        private EdmRecordBuilder() {
+            super(EdmOps.this);
+        }
+
+        @Override
+        protected Map<String, EdmElement<?>> initBuilder() {
+            return new HashMap<>();
+        }
+
+        @Override
+        protected Map<String, EdmElement<?>> append(String key, EdmElement<?> value, Map<String, EdmElement<?>> builder) {
+            builder.put(key, value);
+            return builder;
+        }
+
+        @Override
+        protected DataResult<EdmElement<?>> build(Map<String, EdmElement<?>> builder, EdmElement<?> prefix) {
+            if (prefix == null || prefix == empty()) {
+                return DataResult.success(EdmElement.consumeMap(builder));
+            } else if (prefix.value() instanceof Map<?, ?> prefixMap) {
+                var result = new HashMap<String, EdmElement<?>>((Map<String, ? extends EdmElement<?>>) prefixMap);
+                result.putAll(builder);
+
+                return DataResult.success(EdmElement.consumeMap(result));
+            } else {
+                return DataResult.error(() -> "Not a map: " + prefix, prefix);
+            }
+        }
+    }
+
+    private record MapView(Map<String, EdmElement<?>> map) implements MapLike<EdmElement<?>> {
+
+        @Override
+        public @Nullable EdmElement<?> get(EdmElement<?> key) {
+            return key.value() instanceof String string ? this.map.get(string) : null;
+        }
+
+        @Override
+        public @Nullable EdmElement<?> get(String key) {
+            return this.map.get(key);
+        }
+
+        @Override
+        public Stream<Pair<EdmElement<?>, EdmElement<?>>> entries() {
+            return this.map.entrySet().stream().map(entry -> Pair.<EdmElement<?>, EdmElement<?>>of(EdmElement.string(entry.getKey()), entry.getValue()));
+        }
+
+        @Override
+        public String toString() {
+            return "MapLike[" + this.map + "]";
+        }
+    }
 }
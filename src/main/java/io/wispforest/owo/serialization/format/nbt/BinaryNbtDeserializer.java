@@ -0,0 +1,497 @@
+package io.wispforest.owo.serialization.format.nbt;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.wispforest.endec.*;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtElement;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A deserializer which reads binary NBT, as written by {@link BinaryNbtSerializer} or
+ * {@link net.minecraft.nbt.NbtIo#writeForPacket(NbtElement, java.io.DataOutput)}, straight
+ * from a {@link ByteBuf} without building an {@link NbtElement} tree first
+ * <p>
+ * Values are read on demand as the endec requests them. Since the entries of an NBT compound
+ * are not ordered, struct fields are located by skipping over the compound once when the struct is
+ * opened. Fields requested in the order they were written - which is always the case for data
+ * produced by {@link BinaryNbtSerializer} - are found immediately, all others by a scan of the entries
+ */
+public class BinaryNbtDeserializer implements SelfDescribedDeserializer<ByteBuf> {
+
+    private static final int MAX_DEPTH = 512;
+
+    protected final ByteBuf buffer;
+    private final ByteBufInputStream input;
+
+    // the type of the value at the current position, which
+    // is stored by its parent rather than the value itself
+    private byte pendingType;
+
+    // set when the current value is a struct field with a default
+    // value - optionals written into such fields may have been stored
+    // as their value alone, see BinaryNbtSerializer#writeOptional
+    private boolean pendingOmittable = false;
+
+    protected BinaryNbtDeserializer(ByteBuf buffer, byte type) {
+        this.buffer = buffer;
+        this.input = new ByteBufInputStream(buffer);
+
+        this.pendingType = type;
+    }
+
+    /**
+     * Create a deserializer for data laid out like {@link net.minecraft.nbt.NbtIo#writeForPacket(NbtElement, java.io.DataOutput)}
+     * writes it - a single type byte followed by the unnamed root element
+     */
+    public static BinaryNbtDeserializer of(ByteBuf buffer) {
+        return new BinaryNbtDeserializer(buffer, buffer.readByte());
+    }
+
+    /**
+     * Create a deserializer for data laid out like {@link net.minecraft.nbt.NbtIo#write(NbtCompound, java.io.DataOutput)}
+     * writes it, which is the format of NBT files - a type byte and a name followed by the root element
+     */
+    public static BinaryNbtDeserializer ofNamed(ByteBuf buffer) {
+        byte type = buffer.readByte();
+        if (type != NbtElement.END_TYPE) buffer.skipBytes(buffer.readUnsignedShort());
+
+        return new BinaryNbtDeserializer(buffer, type);
+    }
+
+    /**
+     * Create a deserializer for the payload of an element of the given
+     * type, which starts at the reader index of {@code buffer}
+     */
+    static BinaryNbtDeserializer ofPayload(ByteBuf buffer, byte type) {
+        return new BinaryNbtDeserializer(buffer, type);
+    }
+
+    // ---
+
+    private byte takeType() {
+        this.pendingOmittable = false;
+        return this.pendingType;
+    }
+
+    private void expectType(byte expected) {
+        byte type = this.takeType();
+        if (type != expected) {
+            throw new IllegalStateException("Expected an NBT element of type " + expected + ", found type " + type);
+        }
+    }
+
+    private String readUTF() {
+        try {
+            return this.input.readUTF();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read string in BinaryNbtDeserializer", e);
+        }
+    }
+
+    /**
+     * Skip over the payload of an element of the given type, starting at the reader
+     * index of {@code buffer}. Arrays and lists of fixed-size elements are skipped
+     * by their length, only lists of variable-size elements and compounds are walked
+     */
+    static void skipPayload(ByteBuf buffer, byte type, int depth) {
+        if (depth > MAX_DEPTH) throw new IllegalStateException("NBT data exceeds the maximum depth of " + MAX_DEPTH);
+
+        switch (type) {
+            case NbtElement.STRING_TYPE -> buffer.skipBytes(buffer.readUnsignedShort());
+            case NbtElement.BYTE_ARRAY_TYPE -> buffer.skipBytes(buffer.readInt());
+            case NbtElement.INT_ARRAY_TYPE -> buffer.skipBytes(Math.multiplyExact(buffer.readInt(), 4));
+            case NbtElement.LONG_ARRAY_TYPE -> buffer.skipBytes(Math.multiplyExact(buffer.readInt(), 8));
+            case NbtElement.LIST_TYPE -> {
+                byte elementType = buffer.readByte();
+                int size = buffer.readInt();
+
+                int elementSize = fixedPayloadSize(elementType);
+                if (elementSize != -1) {
+                    buffer.skipBytes(Math.multiplyExact(size, elementSize));
+                } else {
+                    for (int i = 0; i < size; i++) {
+                        skipPayload(buffer, elementType, depth + 1);
+                    }
+                }
+            }
+            case NbtElement.COMPOUND_TYPE -> {
+                byte entryType;
+                while ((entryType = buffer.readByte()) != NbtElement.END_TYPE) {
+                    buffer.skipBytes(buffer.readUnsignedShort());
+                    skipPayload(buffer, entryType, depth + 1);
+                }
+            }
+            default -> {
+                int size = fixedPayloadSize(type);
+                if (size == -1) throw new IllegalStateException("Encountered unknown NBT type " + type);
+
+                buffer.skipBytes(size);
+            }
+        }
+    }
+
+    private static int fixedPayloadSize(byte type) {
+        return switch (type) {
+            case NbtElement.END_TYPE -> 0;
+            case NbtElement.BYTE_TYPE -> 1;
+            case NbtElement.SHORT_TYPE -> 2;
+            case NbtElement.INT_TYPE, NbtElement.FLOAT_TYPE -> 4;
+            case NbtElement.LONG_TYPE, NbtElement.DOUBLE_TYPE -> 8;
+            default -> -1;
+        };
+    }
+
+    /**
+     * Skip over the entries of the compound at the current
+     * position, recording the offset of each one
+     */
+    private IntArrayList scanCompound() {
+        var offsets = new IntArrayList();
+
+        byte entryType;
+        while (true) {
+            int offset = this.buffer.readerIndex();
+            if ((entryType = this.buffer.readByte()) == NbtElement.END_TYPE) break;
+
+            offsets.add(offset);
+            this.buffer.skipBytes(this.buffer.readUnsignedShort());
+            skipPayload(this.buffer, entryType, 1);
+        }
+
+        return offsets;
+    }
+
+    // ---
+
+    @Override
+    public byte readByte(SerializationContext ctx) {
+        this.expectType(NbtElement.BYTE_TYPE);
+        return this.buffer.readByte();
+    }
+
+    @Override
+    public short readShort(SerializationContext ctx) {
+        this.expectType(NbtElement.SHORT_TYPE);
+        return this.buffer.readShort();
+    }
+
+    @Override
+    public int readInt(SerializationContext ctx) {
+        this.expectType(NbtElement.INT_TYPE);
+        return this.buffer.readInt();
+    }
+
+    @Override
+    public long readLong(SerializationContext ctx) {
+        this.expectType(NbtElement.LONG_TYPE);
+        return this.buffer.readLong();
+    }
+
+    @Override
+    public float readFloat(SerializationContext ctx) {
+        this.expectType(NbtElement.FLOAT_TYPE);
+        return this.buffer.readFloat();
+    }
+
+    @Override
+    public double readDouble(SerializationContext ctx) {
+        this.expectType(NbtElement.DOUBLE_TYPE);
+        return this.buffer.readDouble();
+    }
+
+    // ---
+
+    @Override
+    public int readVarInt(SerializationContext ctx) {
+        return (int) this.readNumber();
+    }
+
+    @Override
+    public long readVarLong(SerializationContext ctx) {
+        return this.readNumber();
+    }
+
+    private long readNumber() {
+        byte type = this.takeType();
+        return switch (type) {
+            case NbtElement.BYTE_TYPE -> this.buffer.readByte();
+            case NbtElement.SHORT_TYPE -> this.buffer.readShort();
+            case NbtElement.INT_TYPE -> this.buffer.readInt();
+            case NbtElement.LONG_TYPE -> this.buffer.readLong();
+            case NbtElement.FLOAT_TYPE -> (long) this.buffer.readFloat();
+            case NbtElement.DOUBLE_TYPE -> (long) this.buffer.readDouble();
+            default -> throw new IllegalStateException("Expected a numeric NBT element, found type " + type);
+        };
+    }
+
+    // ---
+
+    @Override
+    public boolean readBoolean(SerializationContext ctx) {
+        return this.readByte(ctx) != 0;
+    }
+
+    @Override
+    public String readString(SerializationContext ctx) {
+        this.expectType(NbtElement.STRING_TYPE);
+        return this.readUTF();
+    }
+
+    @Override
+    public byte[] readBytes(SerializationContext ctx) {
+        this.expectType(NbtElement.BYTE_ARRAY_TYPE);
+
+        var bytes = new byte[this.buffer.readInt()];
+        this.buffer.readBytes(bytes);
+
+        return bytes;
+    }
+
+    @Override
+    public <V> Optional<V> readOptional(SerializationContext ctx, Endec<V> endec) {
+        if (this.pendingOmittable) {
+            this.pendingOmittable = false;
+            return Optional.of(endec.decode(ctx, this));
+        }
+
+        var struct = this.struct();
+        return struct.field("present", ctx, Endec.BOOLEAN)
+                ? Optional.of(struct.field("value", ctx, endec))
+                : Optional.empty();
+    }
+
+    // ---
+
+    @Override
+    public <E> Deserializer.Sequence<E> sequence(SerializationContext ctx, Endec<E> elementEndec) {
+        byte type = this.takeType();
+        return switch (type) {
+            case NbtElement.LIST_TYPE -> new Sequence<>(ctx, elementEndec, this.buffer.readByte(), this.buffer.readInt());
+            case NbtElement.BYTE_ARRAY_TYPE -> new Sequence<>(ctx, elementEndec, NbtElement.BYTE_TYPE, this.buffer.readInt());
+            case NbtElement.INT_ARRAY_TYPE -> new Sequence<>(ctx, elementEndec, NbtElement.INT_TYPE, this.buffer.readInt());
+            case NbtElement.LONG_ARRAY_TYPE -> new Sequence<>(ctx, elementEndec, NbtElement.LONG_TYPE, this.buffer.readInt());
+            default -> throw new IllegalStateException("Expected an NBT list or array, found type " + type);
+        };
+    }
+
+    @Override
+    public <V> Deserializer.Map<V> map(SerializationContext ctx, Endec<V> valueEndec) {
+        this.expectType(NbtElement.COMPOUND_TYPE);
+        return new Map<>(ctx, valueEndec);
+    }
+
+    @Override
+    public Deserializer.Struct struct() {
+        this.expectType(NbtElement.COMPOUND_TYPE);
+        return new Struct();
+    }
+
+    @Override
+    public <V> V tryRead(Function<Deserializer<ByteBuf>, V> reader) {
+        int readerIndex = this.buffer.readerIndex();
+        byte pendingType = this.pendingType;
+        boolean pendingOmittable = this.pendingOmittable;
+
+        try {
+            return reader.apply(this);
+        } catch (Exception e) {
+            this.buffer.readerIndex(readerIndex);
+            this.pendingType = pendingType;
+            this.pendingOmittable = pendingOmittable;
+
+            throw e;
+        }
+    }
+
+    // ---
+
+    @Override
+    public <S> void readAny(SerializationContext ctx, Serializer<S> visitor) {
+        byte type = this.takeType();
+        switch (type) {
+            case NbtElement.BYTE_TYPE -> visitor.writeByte(ctx, this.buffer.readByte());
+            case NbtElement.SHORT_TYPE -> visitor.writeShort(ctx, this.buffer.readShort());
+            case NbtElement.INT_TYPE -> visitor.writeInt(ctx, this.buffer.readInt());
+            case NbtElement.LONG_TYPE -> visitor.writeLong(ctx, this.buffer.readLong());
+            case NbtElement.FLOAT_TYPE -> visitor.writeFloat(ctx, this.buffer.readFloat());
+            case NbtElement.DOUBLE_TYPE -> visitor.writeDouble(ctx, this.buffer.readDouble());
+            case NbtElement.STRING_TYPE -> visitor.writeString(ctx, this.readUTF());
+            case NbtElement.BYTE_ARRAY_TYPE -> {
+                var bytes = new byte[this.buffer.readInt()];
+                this.buffer.readBytes(bytes);
+
+                visitor.writeBytes(ctx, bytes);
+            }
+            case NbtElement.INT_ARRAY_TYPE, NbtElement.LONG_ARRAY_TYPE, NbtElement.LIST_TYPE -> {
+                byte elementType = switch (type) {
+                    case NbtElement.INT_ARRAY_TYPE -> NbtElement.INT_TYPE;
+                    case NbtElement.LONG_ARRAY_TYPE -> NbtElement.LONG_TYPE;
+                    default -> this.buffer.readByte();
+                };
+                int size = this.buffer.readInt();
+
+                try (var sequence = visitor.sequence(ctx, this.anyEndec(), size)) {
+                    for (int i = 0; i < size; i++) {
+                        this.pendingType = elementType;
+                        sequence.element(null);
+                    }
+                }
+            }
+            case NbtElement.COMPOUND_TYPE -> {
+                // the visitor may need to know the amount
+                // of entries upfront, so count them first
+                int entriesIndex = this.buffer.readerIndex();
+                int size = this.scanCompound().size();
+                this.buffer.readerIndex(entriesIndex);
+
+                try (var map = visitor.map(ctx, this.anyEndec(), size)) {
+                    byte entryType;
+                    while ((entryType = this.buffer.readByte()) != NbtElement.END_TYPE) {
+                        var key = this.readUTF();
+
+                        this.pendingType = entryType;
+                        map.entry(key, null);
+                    }
+                }
+            }
+            default -> throw new IllegalStateException("Encountered unknown NBT type " + type);
+        }
+    }
+
+    // the encoder of this endec copies the value at the current position
+    // of this deserializer into the serializer it is given, ignoring its input
+    private Endec<Void> anyEndec() {
+        return Endec.of((ctx, serializer, $) -> this.readAny(ctx, serializer), (ctx, deserializer) -> null);
+    }
+
+    // ---
+
+    private class Sequence<V> implements Deserializer.Sequence<V> {
+
+        private final SerializationContext ctx;
+        private final Endec<V> elementEndec;
+        private final byte elementType;
+
+        private final int size;
+        private int index = 0;
+
+        private Sequence(SerializationContext ctx, Endec<V> elementEndec, byte elementType, int size) {
+            this.ctx = ctx;
+            this.elementEndec = elementEndec;
+            this.elementType = elementType;
+            this.size = size;
+        }
+
+        @Override
+        public int estimatedSize() {
+            return this.size;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.index < this.size;
+        }
+
+        @Override
+        public V next() {
+            if (!this.hasNext()) throw new NoSuchElementException();
+
+            this.index++;
+            BinaryNbtDeserializer.this.pendingType = this.elementType;
+            return this.elementEndec.decode(this.ctx, BinaryNbtDeserializer.this);
+        }
+    }
+
+    private class Map<V> implements Deserializer.Map<V> {
+
+        private final SerializationContext ctx;
+        private final Endec<V> valueEndec;
+
+        private byte nextType;
+
+        private Map(SerializationContext ctx, Endec<V> valueEndec) {
+            this.ctx = ctx;
+            this.valueEndec = valueEndec;
+
+            this.nextType = BinaryNbtDeserializer.this.buffer.readByte();
+        }
+
+        @Override
+        public int estimatedSize() {
+            return 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.nextType != NbtElement.END_TYPE;
+        }
+
+        @Override
+        public java.util.Map.Entry<String, V> next() {
+            if (!this.hasNext()) throw new NoSuchElementException();
+
+            var key = BinaryNbtDeserializer.this.readUTF();
+
+            BinaryNbtDeserializer.this.pendingType = this.nextType;
+            var value = this.valueEndec.decode(this.ctx, BinaryNbtDeserializer.this);
+
+            this.nextType = BinaryNbtDeserializer.this.buffer.readByte();
+            return java.util.Map.entry(key, value);
+        }
+    }
+
+    private class Struct implements Deserializer.Struct {
+
+        private final IntArrayList entryOffsets;
+        private final int endIndex;
+        private int nextEntry = 0;
+
+        private Struct() {
+            this.entryOffsets = BinaryNbtDeserializer.this.scanCompound();
+            this.endIndex = BinaryNbtDeserializer.this.buffer.readerIndex();
+        }
+
+        @Override
+        public <F> @Nullable F field(String name, SerializationContext ctx, Endec<F> endec, @Nullable Supplier<F> defaultValueFactory) {
+            var buffer = BinaryNbtDeserializer.this.buffer;
+
+            // start looking right after the previously read field, so that
+            // reading the fields in the order they were written never scans
+            int entryCount = this.entryOffsets.size();
+            for (int i = 0; i < entryCount; i++) {
+                int entry = (this.nextEntry + i) % entryCount;
+
+                buffer.readerIndex(this.entryOffsets.getInt(entry));
+                byte type = buffer.readByte();
+                if (!name.equals(BinaryNbtDeserializer.this.readUTF())) continue;
+
+                try {
+                    BinaryNbtDeserializer.this.pendingType = type;
+                    BinaryNbtDeserializer.this.pendingOmittable = defaultValueFactory != null;
+
+                    return endec.decode(ctx, BinaryNbtDeserializer.this);
+                } finally {
+                    this.nextEntry = entry + 1;
+                    buffer.readerIndex(this.endIndex);
+                }
+            }
+
+            buffer.readerIndex(this.endIndex);
+
+            if (defaultValueFactory == null) {
+                throw new IllegalStateException("Field '" + name + "' was missing from serialized data, but no default value was provided");
+            }
+
+            return defaultValueFactory.get();
+        }
+    }
+}
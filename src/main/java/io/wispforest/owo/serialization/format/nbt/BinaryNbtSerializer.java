@@ -0,0 +1,302 @@
+package io.wispforest.owo.serialization.format.nbt;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
+import io.wispforest.endec.*;
+import net.minecraft.nbt.NbtElement;
+import net.minecraft.network.encoding.VarInts;
+import net.minecraft.network.encoding.VarLongs;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Optional;
+
+/**
+ * A serializer which writes binary NBT straight into a {@link ByteBuf}, without building
+ * an {@link NbtElement} tree first. The produced data is structurally identical to what
+ * {@link NbtSerializer} produces and is laid out like {@link net.minecraft.nbt.NbtIo#writeForPacket(NbtElement, java.io.DataOutput)}
+ * does - a single type byte followed by the unnamed root element. It can thus be read
+ * by {@link net.minecraft.nbt.NbtIo#read(java.io.DataInput, net.minecraft.nbt.NbtSizeTracker)}
+ * or {@link BinaryNbtDeserializer}
+ * <p>
+ * Since the type of a list's elements and their amount are only known once the list has
+ * been written, both are patched into the list header afterwards. This requires random
+ * access to the written data, which is why this serializer only targets {@link ByteBuf}s
+ */
+public class BinaryNbtSerializer implements SelfDescribedSerializer<ByteBuf> {
+
+    protected final ByteBuf buffer;
+    private final ByteBufOutputStream output;
+
+    private final ArrayDeque<Container> containers = new ArrayDeque<>();
+    private boolean rootWritten = false;
+
+    // set by a struct field which may be omitted, consumed by the
+    // very next value written - if that is an optional, it is written
+    // as its value if present and omitted entirely otherwise
+    private boolean mayOmitNext = false;
+
+    protected BinaryNbtSerializer(ByteBuf buffer) {
+        this.buffer = buffer;
+        this.output = new ByteBufOutputStream(buffer);
+    }
+
+    public static BinaryNbtSerializer of(ByteBuf buffer) {
+        return new BinaryNbtSerializer(buffer);
+    }
+
+    // ---
+
+    private void beginValue(byte type) {
+        this.mayOmitNext = false;
+
+        var container = this.containers.peek();
+        if (container != null) {
+            container.beginValue(type);
+            return;
+        }
+
+        if (this.rootWritten) {
+            throw new IllegalStateException("Tried to write more than one root element into a BinaryNbtSerializer");
+        }
+
+        this.buffer.writeByte(type);
+        this.rootWritten = true;
+    }
+
+    private void writeUTF(String value) {
+        try {
+            this.output.writeUTF(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write string in BinaryNbtSerializer", e);
+        }
+    }
+
+    // ---
+
+    @Override
+    public void writeByte(SerializationContext ctx, byte value) {
+        this.beginValue(NbtElement.BYTE_TYPE);
+        this.buffer.writeByte(value);
+    }
+
+    @Override
+    public void writeShort(SerializationContext ctx, short value) {
+        this.beginValue(NbtElement.SHORT_TYPE);
+        this.buffer.writeShort(value);
+    }
+
+    @Override
+    public void writeInt(SerializationContext ctx, int value) {
+        this.beginValue(NbtElement.INT_TYPE);
+        this.buffer.writeInt(value);
+    }
+
+    @Override
+    public void writeLong(SerializationContext ctx, long value) {
+        this.beginValue(NbtElement.LONG_TYPE);
+        this.buffer.writeLong(value);
+    }
+
+    @Override
+    public void writeFloat(SerializationContext ctx, float value) {
+        this.beginValue(NbtElement.FLOAT_TYPE);
+        this.buffer.writeFloat(value);
+    }
+
+    @Override
+    public void writeDouble(SerializationContext ctx, double value) {
+        this.beginValue(NbtElement.DOUBLE_TYPE);
+        this.buffer.writeDouble(value);
+    }
+
+    // ---
+
+    @Override
+    public void writeVarInt(SerializationContext ctx, int value) {
+        switch (VarInts.getSizeInBytes(value)) {
+            case 0, 1 -> this.writeByte(ctx, (byte) value);
+            case 2 -> this.writeShort(ctx, (short) value);
+            default -> this.writeInt(ctx, value);
+        }
+    }
+
+    @Override
+    public void writeVarLong(SerializationContext ctx, long value) {
+        switch (VarLongs.getSizeInBytes(value)) {
+            case 0, 1 -> this.writeByte(ctx, (byte) value);
+            case 2 -> this.writeShort(ctx, (short) value);
+            case 3, 4 -> this.writeInt(ctx, (int) value);
+            default -> this.writeLong(ctx, value);
+        }
+    }
+
+    // ---
+
+    @Override
+    public void writeBoolean(SerializationContext ctx, boolean value) {
+        this.writeByte(ctx, value ? (byte) 1 : (byte) 0);
+    }
+
+    @Override
+    public void writeString(SerializationContext ctx, String value) {
+        this.beginValue(NbtElement.STRING_TYPE);
+        this.writeUTF(value);
+    }
+
+    @Override
+    public void writeBytes(SerializationContext ctx, byte[] bytes) {
+        this.beginValue(NbtElement.BYTE_ARRAY_TYPE);
+        this.buffer.writeInt(bytes.length);
+        this.buffer.writeBytes(bytes);
+    }
+
+    @Override
+    public <V> void writeOptional(SerializationContext ctx, Endec<V> endec, Optional<V> optional) {
+        if (this.mayOmitNext) {
+            this.mayOmitNext = false;
+
+            if (optional.isPresent()) {
+                endec.encode(ctx, this, optional.get());
+            } else {
+                // nothing was written, so the field's name must not be either
+                ((Compound<?>) this.containers.peek()).pendingName = null;
+            }
+
+            return;
+        }
+
+        try (var struct = this.struct()) {
+            struct.field("present", ctx, Endec.BOOLEAN, optional.isPresent());
+            optional.ifPresent(value -> struct.field("value", ctx, endec, value));
+        }
+    }
+
+    // ---
+
+    @Override
+    public <E> Serializer.Sequence<E> sequence(SerializationContext ctx, Endec<E> elementEndec, int size) {
+        this.beginValue(NbtElement.LIST_TYPE);
+        return new List<>(ctx, elementEndec);
+    }
+
+    @Override
+    public <V> Serializer.Map<V> map(SerializationContext ctx, Endec<V> valueEndec, int size) {
+        this.beginValue(NbtElement.COMPOUND_TYPE);
+        return new Compound<>(ctx, valueEndec);
+    }
+
+    @Override
+    public Struct struct() {
+        this.beginValue(NbtElement.COMPOUND_TYPE);
+        return new Compound<>(null, null);
+    }
+
+    @Override
+    public ByteBuf result() {
+        return this.buffer;
+    }
+
+    // ---
+
+    private interface Container {
+        void beginValue(byte type);
+    }
+
+    private class Compound<V> implements Container, Serializer.Map<V>, Struct {
+
+        private final SerializationContext ctx;
+        private final Endec<V> valueEndec;
+
+        private @Nullable String pendingName = null;
+
+        private Compound(SerializationContext ctx, Endec<V> valueEndec) {
+            this.ctx = ctx;
+            this.valueEndec = valueEndec;
+
+            BinaryNbtSerializer.this.containers.push(this);
+        }
+
+        @Override
+        public void beginValue(byte type) {
+            if (this.pendingName == null) {
+                throw new IllegalStateException("Tried to write more than one value for a single compound entry");
+            }
+
+            BinaryNbtSerializer.this.buffer.writeByte(type);
+            BinaryNbtSerializer.this.writeUTF(this.pendingName);
+
+            this.pendingName = null;
+        }
+
+        @Override
+        public void entry(String key, V value) {
+            this.pendingName = key;
+            this.valueEndec.encode(this.ctx, BinaryNbtSerializer.this, value);
+        }
+
+        @Override
+        public <F> Struct field(String name, SerializationContext ctx, Endec<F> endec, F value, boolean mayOmit) {
+            this.pendingName = name;
+
+            BinaryNbtSerializer.this.mayOmitNext = mayOmit;
+            endec.encode(ctx, BinaryNbtSerializer.this, value);
+
+            return this;
+        }
+
+        @Override
+        public void end() {
+            BinaryNbtSerializer.this.containers.pop();
+            BinaryNbtSerializer.this.buffer.writeByte(NbtElement.END_TYPE);
+        }
+    }
+
+    private class List<V> implements Container, Serializer.Sequence<V> {
+
+        private final SerializationContext ctx;
+        private final Endec<V> elementEndec;
+
+        private final int headerIndex;
+        private byte elementType = NbtElement.END_TYPE;
+        private int size = 0;
+
+        private List(SerializationContext ctx, Endec<V> elementEndec) {
+            this.ctx = ctx;
+            this.elementEndec = elementEndec;
+
+            // element type and size, patched in end()
+            this.headerIndex = BinaryNbtSerializer.this.buffer.writerIndex();
+            BinaryNbtSerializer.this.buffer.writeByte(NbtElement.END_TYPE);
+            BinaryNbtSerializer.this.buffer.writeInt(0);
+
+            BinaryNbtSerializer.this.containers.push(this);
+        }
+
+        @Override
+        public void beginValue(byte type) {
+            if (this.size == 0) {
+                this.elementType = type;
+            } else if (type != this.elementType) {
+                throw new IllegalStateException("Tried to write element of type " + type + " into NBT list of type " + this.elementType);
+            }
+
+            this.size++;
+        }
+
+        @Override
+        public void element(V element) {
+            this.elementEndec.encode(this.ctx, BinaryNbtSerializer.this, element);
+        }
+
+        @Override
+        public void end() {
+            BinaryNbtSerializer.this.containers.pop();
+
+            BinaryNbtSerializer.this.buffer.setByte(this.headerIndex, this.elementType);
+            BinaryNbtSerializer.this.buffer.setInt(this.headerIndex + 1, this.size);
+        }
+    }
+}
@@ -87,6 +87,14 @@ public class NbtDeserializer extends RecursiveDeserializer<NbtElement> implement
         return this.getAs(this.getValue(), NbtByteArray.class).getByteArray();
     }
 
+    /**
+     * Read the current element as-is, instead of copying it
+     * through {@link #readAny(SerializationContext, Serializer)}
+     */
+    public NbtElement readElement(SerializationContext ctx) {
+        return this.getValue();
+    }
+
     private final Set<IdentityHolder<NbtElement>> encodedOptionals = Collections.newSetFromMap(new WeakHashMap<>());
 
     @Override
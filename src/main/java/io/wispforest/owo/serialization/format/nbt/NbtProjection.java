@@ -0,0 +1,130 @@
+package io.wispforest.owo.serialization.format.nbt;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.Unpooled;
+import io.wispforest.endec.SerializationAttributes;
+import io.wispforest.endec.SerializationContext;
+import io.wispforest.endec.impl.KeyedEndec;
+import io.wispforest.endec.util.MapCarrier;
+import net.minecraft.nbt.NbtElement;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * A read-only view of a binary NBT compound which reads the values of individual
+ * {@link KeyedEndec}s without parsing the rest of the compound
+ * <p>
+ * The entries of the compound are located lazily - looking up a key only skips over the
+ * entries in front of it which have not been looked at before, and skipping an entry never
+ * allocates. Once found, a value is decoded straight from the binary data through a
+ * {@link BinaryNbtDeserializer}. This makes projections well-suited for pulling a handful of
+ * keys out of many large NBT files, like when iterating over all saved playerdata
+ */
+public final class NbtProjection implements MapCarrier {
+
+    private final ByteBuf buffer;
+    private final ByteBufInputStream input;
+
+    private final Map<String, Entry> entries = new HashMap<>();
+    private boolean fullyScanned = false;
+
+    private NbtProjection(ByteBuf buffer) {
+        this.buffer = buffer;
+        this.input = new ByteBufInputStream(buffer);
+    }
+
+    /**
+     * Create a projection of the compound at the reader index of {@code buffer}, laid out like
+     * {@link net.minecraft.nbt.NbtIo#writeForPacket(NbtElement, java.io.DataOutput)} writes it
+     */
+    public static NbtProjection of(ByteBuf buffer) {
+        expectCompound(buffer.readByte());
+        return new NbtProjection(buffer);
+    }
+
+    /**
+     * Create a projection of the compound stored in the given NBT file. Just like
+     * {@link net.minecraft.nbt.NbtIo#readCompressed(Path, net.minecraft.nbt.NbtSizeTracker)},
+     * this expects the file to be GZIP-compressed
+     */
+    public static NbtProjection readCompressed(Path file) throws IOException {
+        ByteBuf buffer;
+        try (var input = new GZIPInputStream(Files.newInputStream(file))) {
+            buffer = Unpooled.wrappedBuffer(input.readAllBytes());
+        }
+
+        expectCompound(buffer.readByte());
+        buffer.skipBytes(buffer.readUnsignedShort());
+
+        return new NbtProjection(buffer);
+    }
+
+    private static void expectCompound(byte type) {
+        if (type != NbtElement.COMPOUND_TYPE) {
+            throw new IllegalStateException("Expected an NBT compound, found type " + type);
+        }
+    }
+
+    private @Nullable Entry find(String key) {
+        var entry = this.entries.get(key);
+        if (entry != null || this.fullyScanned) return entry;
+
+        try {
+            byte type;
+            while ((type = this.buffer.readByte()) != NbtElement.END_TYPE) {
+                var name = this.input.readUTF();
+                var scanned = new Entry(type, this.buffer.readerIndex());
+
+                this.entries.putIfAbsent(name, scanned);
+                BinaryNbtDeserializer.skipPayload(this.buffer, type, 1);
+
+                if (name.equals(key)) return scanned;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read NBT projection", e);
+        }
+
+        this.fullyScanned = true;
+        return null;
+    }
+
+    // ---
+
+    @Override
+    public <T> T getWithErrors(SerializationContext ctx, @NotNull KeyedEndec<T> key) {
+        var entry = this.find(key.key());
+        if (entry == null) return key.defaultValue();
+
+        return key.endec().decodeFully(
+                ctx.withAttributes(SerializationAttributes.HUMAN_READABLE),
+                buffer -> BinaryNbtDeserializer.ofPayload(buffer, entry.type),
+                this.buffer.slice(entry.payloadIndex, this.buffer.writerIndex() - entry.payloadIndex)
+        );
+    }
+
+    @Override
+    public <T> void put(SerializationContext ctx, @NotNull KeyedEndec<T> key, @NotNull T value) {
+        throw new UnsupportedOperationException("NBT projections are read-only");
+    }
+
+    @Override
+    public <T> void delete(@NotNull KeyedEndec<T> key) {
+        throw new UnsupportedOperationException("NBT projections are read-only");
+    }
+
+    @Override
+    public <T> boolean has(@NotNull KeyedEndec<T> key) {
+        return this.find(key.key()) != null;
+    }
+
+    private record Entry(byte type, int payloadIndex) {}
+}
@@ -101,6 +101,25 @@ public class NbtSerializer extends RecursiveSerializer<NbtElement> implements Se
         this.consume(new NbtByteArray(bytes));
     }
 
+    /**
+     * Write the given element into this serializer as-is, instead of
+     * copying it through {@link NbtDeserializer#readAny(SerializationContext, Serializer)}.
+     * The element is adopted without a copy, so it must not be mutated afterwards
+     * <p>
+     * If this serializer was created with a prefix, the element is
+     * copied into it as usual
+     */
+    public void writeElement(SerializationContext ctx, NbtElement element) {
+        if (this.prefix != null) {
+            NbtDeserializer.of(element).readAny(ctx, this);
+            return;
+        }
+
+        this.consume(element);
+    }
+
+    // ---
+
     private final Set<IdentityHolder<NbtElement>> encodedOptionals = Collections.newSetFromMap(new WeakHashMap<>());
 
     @Override
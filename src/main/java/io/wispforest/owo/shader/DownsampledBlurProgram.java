@@ -0,0 +1,184 @@
+package io.wispforest.owo.shader;
+
+import com.mojang.blaze3d.platform.GlStateManager;
+import com.mojang.blaze3d.systems.ProjectionType;
+import com.mojang.blaze3d.systems.RenderSystem;
+import io.wispforest.owo.ui.core.Surface;
+import io.wispforest.owo.ui.util.ScissorStack;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.gl.GlUniform;
+import net.minecraft.client.gl.SimpleFramebuffer;
+import net.minecraft.client.render.BufferRenderer;
+import net.minecraft.client.render.Tessellator;
+import net.minecraft.client.render.VertexFormat;
+import net.minecraft.client.render.VertexFormats;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.MathHelper;
+import org.jetbrains.annotations.Nullable;
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL30;
+
+/**
+ * A GlProgram which blurs a region of the framebuffer that is currently
+ * being drawn to. Only that region (plus the blur radius on every side) is copied,
+ * at half or quarter resolution, and then blurred with a separable gaussian in two
+ * passes per iteration. The blur framebuffers only ever grow, so smaller regions
+ * occupy just their lower left corner. Drawing geometry over the region with this
+ * program bound upscales the result. Look at {@link Surface#blur(float, float)} for a
+ * reference implementation
+ */
+public class DownsampledBlurProgram extends GlProgram {
+
+    private static final Matrix4f IDENTITY = new Matrix4f();
+
+    private GlUniform inputOffset;
+    private GlUniform inputResolution;
+    private GlUniform inputBounds;
+    private GlUniform direction;
+
+    private @Nullable SimpleFramebuffer ping, pong;
+
+    public DownsampledBlurProgram() {
+        super(Identifier.of("owo", "downsampled_blur"), VertexFormats.POSITION);
+    }
+
+    /**
+     * Blur the given region of the framebuffer which is currently bound
+     * and bind this program so that it draws the result
+     *
+     * @param matrix  The transformation of the region
+     * @param quality The amount of blur iterations to run, divided by four. Higher quality
+     *                makes the blur smoother while keeping its radius the same
+     * @param size    The radius of the blur, in framebuffer pixels
+     * @return {@code false} if the region is entirely off-screen, in which case
+     * nothing was blurred and nothing should be drawn
+     */
+    public boolean prepare(Matrix4f matrix, int x, int y, int width, int height, float quality, float size) {
+        var window = MinecraftClient.getInstance().getWindow();
+        var scale = window.getScaleFactor();
+
+        var origin = matrix.transformPosition(x, y, 0, new Vector3f());
+        var end = matrix.transformPosition(x + width, y + height, 0, new Vector3f());
+
+        // Copy the blur radius around the region as well,
+        // so that its edges blur into their surroundings
+        int padding = (int) Math.ceil(size);
+        int left = MathHelper.clamp((int) (origin.x * scale) - padding, 0, window.getFramebufferWidth());
+        int right = MathHelper.clamp((int) Math.ceil(end.x * scale) + padding, 0, window.getFramebufferWidth());
+        int bottom = MathHelper.clamp(window.getFramebufferHeight() - (int) Math.ceil(end.y * scale) - padding, 0, window.getFramebufferHeight());
+        int top = MathHelper.clamp(window.getFramebufferHeight() - (int) (origin.y * scale) + padding, 0, window.getFramebufferHeight());
+
+        int regionWidth = right - left, regionHeight = top - bottom;
+        if (regionWidth <= 0 || regionHeight <= 0) return false;
+
+        int downsampling = size >= 8 ? 4 : 2;
+        int iterations = Math.max(1, Math.round(quality / 4));
+        int blurWidth = MathHelper.ceilDiv(regionWidth, downsampling), blurHeight = MathHelper.ceilDiv(regionHeight, downsampling);
+        this.ensureFramebuffers(blurWidth, blurHeight);
+
+        // the fraction of the framebuffers occupied by the blurred region
+        float usedWidth = (float) blurWidth / this.ping.textureWidth;
+        float usedHeight = (float) blurHeight / this.ping.textureHeight;
+
+        int source = GlStateManager.getBoundFramebuffer();
+        int prevX = GlStateManager.Viewport.getX();
+        int prevY = GlStateManager.Viewport.getY();
+        int prevWidth = GlStateManager.Viewport.getWidth();
+        int prevHeight = GlStateManager.Viewport.getHeight();
+
+        // Repeating a gaussian widens it by the square root of
+        // the iteration count, which the tap spacing makes up for
+        float spacing = size / (4 * MathHelper.sqrt(iterations));
+
+        ScissorStack.drawUnclipped(() -> {
+            this.ping.beginWrite(false);
+            GL30.glBindFramebuffer(GL30.GL_READ_FRAMEBUFFER, source);
+            GL30.glBlitFramebuffer(left, bottom, right, top, 0, 0, blurWidth, blurHeight, GL30.GL_COLOR_BUFFER_BIT, GL30.GL_LINEAR);
+
+            RenderSystem.disableBlend();
+            RenderSystem.backupProjectionMatrix();
+            RenderSystem.setProjectionMatrix(IDENTITY, ProjectionType.ORTHOGRAPHIC);
+
+            var modelView = RenderSystem.getModelViewStack();
+            modelView.pushMatrix().identity();
+
+            for (int i = 0; i < iterations; i++) {
+                this.pass(this.ping, this.pong, blurWidth, blurHeight, spacing / regionWidth * usedWidth, 0);
+                this.pass(this.pong, this.ping, blurWidth, blurHeight, 0, spacing / regionHeight * usedHeight);
+            }
+
+            modelView.popMatrix();
+            RenderSystem.restoreProjectionMatrix();
+        });
+
+        GlStateManager._glBindFramebuffer(GL30.GL_FRAMEBUFFER, source);
+        RenderSystem.viewport(prevX, prevY, prevWidth, prevHeight);
+
+        this.inputOffset.set((float) left, (float) bottom);
+        this.inputResolution.set(regionWidth / usedWidth, regionHeight / usedHeight);
+        this.setInputBounds(this.ping, blurWidth, blurHeight);
+        this.direction.set(0f, 0f);
+        this.backingProgram.addSamplerTexture("InputSampler", this.ping.getColorAttachment());
+
+        super.use();
+        return true;
+    }
+
+    private void pass(SimpleFramebuffer from, SimpleFramebuffer to, int width, int height, float directionX, float directionY) {
+        to.beginWrite(false);
+        RenderSystem.viewport(0, 0, width, height);
+
+        this.inputOffset.set(0f, 0f);
+        this.inputResolution.set((float) to.textureWidth, (float) to.textureHeight);
+        this.setInputBounds(from, width, height);
+        this.direction.set(directionX, directionY);
+        this.backingProgram.addSamplerTexture("InputSampler", from.getColorAttachment());
+        super.use();
+
+        var buffer = Tessellator.getInstance().begin(VertexFormat.DrawMode.QUADS, VertexFormats.POSITION);
+        buffer.vertex(-1, -1, 0);
+        buffer.vertex(1, -1, 0);
+        buffer.vertex(1, 1, 0);
+        buffer.vertex(-1, 1, 0);
+        BufferRenderer.drawWithGlobalProgram(buffer.end());
+    }
+
+    /**
+     * Clamp sampling to the texel centers of the lower left {@code width} x {@code height}
+     * pixels of {@code framebuffer}, so that whatever a larger region left in
+     * the rest of it does not bleed into the blur
+     */
+    private void setInputBounds(SimpleFramebuffer framebuffer, int width, int height) {
+        this.inputBounds.set((width - .5f) / framebuffer.textureWidth, (height - .5f) / framebuffer.textureHeight);
+    }
+
+    private void ensureFramebuffers(int width, int height) {
+        if (this.ping == null) {
+            this.ping = new SimpleFramebuffer(width, height, false);
+            this.pong = new SimpleFramebuffer(width, height, false);
+        } else if (this.ping.textureWidth < width || this.ping.textureHeight < height) {
+            // only ever grow, regions of different sizes
+            // are rendered into a part of the framebuffers
+            width = Math.max(width, this.ping.textureWidth);
+            height = Math.max(height, this.ping.textureHeight);
+
+            this.ping.resize(width, height);
+            this.pong.resize(width, height);
+        } else {
+            return;
+        }
+
+        this.ping.setTexFilter(GL11.GL_LINEAR);
+        this.pong.setTexFilter(GL11.GL_LINEAR);
+    }
+
+    @Override
+    protected void setup() {
+        this.inputOffset = this.findUniform("InputOffset");
+        this.inputResolution = this.findUniform("InputResolution");
+        this.inputBounds = this.findUniform("InputBounds");
+        this.direction = this.findUniform("Direction");
+    }
+}
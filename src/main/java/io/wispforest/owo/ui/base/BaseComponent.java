@@ -47,6 +47,13 @@ public abstract class BaseComponent implements Component {
     protected boolean hovered = false;
     protected boolean dirty = false;
 
+    /**
+     * Whether the margins or positioning of this component changed since
+     * it was last mounted, meaning that its parent must lay it out again
+     * even if its size stayed the same
+     */
+    protected boolean placementChanged = false;
+
     protected CursorStyle cursorStyle = CursorStyle.NONE;
     protected List<TooltipComponent> tooltip = List.of();
 
@@ -56,7 +63,8 @@ public abstract class BaseComponent implements Component {
     protected Size space = Size.zero();
 
     protected BaseComponent() {
-        Observable.observeAll(this::notifyParentIfMounted, margins, positioning, horizontalSizing, verticalSizing);
+        Observable.observeAll(this::notifyParentIfMounted, horizontalSizing, verticalSizing);
+        Observable.observeAll(this::notifyParentOfPlacementChange, margins, positioning);
     }
 
     /**
@@ -106,6 +114,11 @@ public abstract class BaseComponent implements Component {
         this.parent.onChildMutated(this);
     }
 
+    protected void notifyParentOfPlacementChange() {
+        this.placementChanged = true;
+        this.notifyParentIfMounted();
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public <C extends Component> C configure(Consumer<C> closure) {
@@ -276,6 +289,7 @@ public abstract class BaseComponent implements Component {
     public void mount(ParentComponent parent, int x, int y) {
         this.parent = parent;
         this.mounted = true;
+        this.placementChanged = false;
         this.moveTo(x, y);
     }
 
@@ -5,6 +5,7 @@ import io.wispforest.owo.mixin.ui.SlotAccessor;
 import io.wispforest.owo.ui.core.*;
 import io.wispforest.owo.ui.inject.GreedyInputComponent;
 import io.wispforest.owo.ui.util.DisposableScreen;
+import io.wispforest.owo.ui.util.ScissorStack;
 import io.wispforest.owo.ui.util.UIErrorToast;
 import io.wispforest.owo.util.pond.OwoSlotExtension;
 import net.fabricmc.fabric.api.client.screen.v1.ScreenEvents;
@@ -21,7 +22,6 @@ import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.lwjgl.glfw.GLFW;
-import org.lwjgl.opengl.GL11;
 
 import java.util.ArrayList;
 import java.util.Optional;
@@ -357,12 +357,7 @@ public abstract class BaseOwoHandledScreen<R extends ParentComponent, S extends
         public void draw(OwoUIDrawContext context, int mouseX, int mouseY, float partialTicks, float delta) {
             this.didDraw = true;
 
-            int[] scissor = new int[4];
-            GL11.glGetIntegerv(GL11.GL_SCISSOR_BOX, scissor);
-
-            ((OwoSlotExtension) this.slot).owo$setScissorArea(PositionedRectangle.of(
-                scissor[0], scissor[1], scissor[2], scissor[3]
-            ));
+            ((OwoSlotExtension) this.slot).owo$setScissorArea(ScissorStack.shadowedScissorBox());
         }
 
         @Override
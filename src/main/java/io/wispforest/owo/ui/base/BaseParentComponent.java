@@ -198,8 +198,25 @@ public abstract class BaseParentComponent extends BaseComponent implements Paren
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * If the child is a {@link BaseComponent} which has not been re-inflated since it was mutated
+     * and whose placement did not change, it is first re-inflated on its own in the space it was last given. Should its full size stay
+     * the same, the layout of this component is unaffected and neither the siblings of the
+     * child nor any ancestors need to be laid out again
+     */
     @Override
     public void onChildMutated(Component child) {
+        if (this.mounted && this.batchedEvents == 0 && !this.dirty
+                && child instanceof BaseComponent component && component.parent == this
+                && component.dirty && !component.placementChanged) {
+            var previousSize = child.fullSize();
+            child.inflate(component.space);
+
+            if (previousSize.equals(child.fullSize())) return;
+        }
+
         this.updateLayout();
     }
 
@@ -269,6 +286,7 @@ public abstract class BaseParentComponent extends BaseComponent implements Paren
     public void updateX(int x) {
         int offset = x - this.x;
         super.updateX(x);
+        if (offset == 0) return;
 
         for (var child : this.children()) {
             child.updateX(child.baseX() + offset);
@@ -279,6 +297,7 @@ public abstract class BaseParentComponent extends BaseComponent implements Paren
     public void updateY(int y) {
         int offset = y - this.y;
         super.updateY(y);
+        if (offset == 0) return;
 
         for (var child : this.children()) {
             child.updateY(child.baseY() + offset);
@@ -360,7 +379,7 @@ public abstract class BaseParentComponent extends BaseComponent implements Paren
         }
 
         if (!this.allowOverflow) {
-            ScissorStack.pop();
+            ScissorStack.pop(context);
         }
     }
 
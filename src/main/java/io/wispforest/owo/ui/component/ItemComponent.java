@@ -85,7 +85,10 @@ public class ItemComponent extends BaseComponent {
         var client = MinecraftClient.getInstance();
 
         ITEM_RENDER_STATE.render(matrices, context.vertexConsumers(), LightmapTextureManager.MAX_LIGHT_COORDINATE, OverlayTexture.DEFAULT_UV);
-        context.draw();
+
+        // Items drawn with the regular GUI lighting can stay batched with
+        // everything else, only those which need different lighting must be drawn right away
+        if (notSideLit) context.draw();
 
         // Clean up
         matrices.pop();
@@ -4,6 +4,9 @@ import io.wispforest.owo.ui.core.Component;
 import io.wispforest.owo.ui.core.Sizing;
 import net.minecraft.text.Text;
 
+import java.util.List;
+import java.util.function.Supplier;
+
 public final class Containers {
 
     private Containers() {}
@@ -44,6 +47,11 @@ public final class Containers {
         return new ScrollContainer<>(ScrollContainer.ScrollDirection.HORIZONTAL, horizontalSizing, verticalSizing, child);
     }
 
+    public static <T, R extends Component> VirtualListContainer<T, R> virtualList(Sizing horizontalSizing, Sizing verticalSizing, int rowHeight, List<? extends T> items,
+                                                                                  Supplier<R> rowFactory, VirtualListContainer.RowBinder<T, R> rowBinder) {
+        return new VirtualListContainer<>(horizontalSizing, verticalSizing, rowHeight, items, rowFactory, rowBinder);
+    }
+
     // ----------------
     // Utility wrappers
     // ----------------
@@ -0,0 +1,249 @@
+package io.wispforest.owo.ui.container;
+
+import io.wispforest.owo.ui.base.BaseParentComponent;
+import io.wispforest.owo.ui.core.Component;
+import io.wispforest.owo.ui.core.OwoUIDrawContext;
+import io.wispforest.owo.ui.core.Size;
+import io.wispforest.owo.ui.core.Sizing;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import net.minecraft.util.math.MathHelper;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * A vertical scroll container which displays a list of arbitrarily
+ * many items as rows of equal height, without creating a component
+ * for every item
+ * <p>
+ * Only the rows inside the viewport, plus a few rows of overscan on either side,
+ * are mounted at any given time. Rows which scroll out of view are recycled - they are
+ * handed back to the {@link RowBinder} together with the next item to display instead of
+ * creating a new component. Updating, laying out and drawing the list thus only ever
+ * touches the visible rows, regardless of how many items it contains
+ * <p>
+ * Each row is inflated with the width of the list and the configured row height
+ * as available space, so rows should generally use {@code Sizing.fill(100)} on both axes
+ *
+ * @param <T> The type of item displayed in this list
+ * @param <R> The type of component used to display a single item
+ */
+public class VirtualListContainer<T, R extends Component> extends ScrollContainer<VirtualListContainer.Rows<T, R>> {
+
+    protected VirtualListContainer(Sizing horizontalSizing, Sizing verticalSizing, int rowHeight, List<? extends T> items, Supplier<R> rowFactory, RowBinder<T, R> rowBinder) {
+        super(ScrollDirection.VERTICAL, horizontalSizing, verticalSizing, new Rows<>(rowHeight, items, rowFactory, rowBinder));
+    }
+
+    @Override
+    public void layout(Size space) {
+        super.layout(space);
+        this.updateVisibleRows();
+    }
+
+    @Override
+    protected void parentUpdate(float delta, int mouseX, int mouseY) {
+        super.parentUpdate(delta, mouseX, mouseY);
+        this.updateVisibleRows();
+    }
+
+    protected void updateVisibleRows() {
+        int viewportLength = this.height - this.padding.get().vertical();
+        double viewportStart = Math.min(this.currentScrollPosition, this.scrollOffset);
+        double viewportEnd = Math.max(this.currentScrollPosition, this.scrollOffset) + viewportLength;
+
+        this.child.showRange(viewportStart, viewportEnd);
+    }
+
+    /**
+     * Notify this list that its items have changed. The amount of rows
+     * is updated and all currently visible rows are bound anew
+     */
+    public VirtualListContainer<T, R> refresh() {
+        this.child.refresh();
+        return this;
+    }
+
+    /**
+     * Replace the items displayed by this list
+     */
+    public VirtualListContainer<T, R> items(List<? extends T> items) {
+        this.child.items = items;
+        return this.refresh();
+    }
+
+    /**
+     * @return The items displayed by this list
+     */
+    public List<? extends T> items() {
+        return this.child.items;
+    }
+
+    /**
+     * Scroll such that the row displaying the item
+     * at the given index is at the top of this list
+     */
+    public VirtualListContainer<T, R> scrollToIndex(int index) {
+        this.scrollOffset = MathHelper.clamp((double) index * this.child.rowHeight, 0, this.maxScroll);
+        return this;
+    }
+
+    /**
+     * Set how many rows above and below the viewport should be
+     * kept mounted, so that they are ready before scrolling into view
+     */
+    public VirtualListContainer<T, R> overscan(int overscan) {
+        this.child.overscan = overscan;
+        return this;
+    }
+
+    public int overscan() {
+        return this.child.overscan;
+    }
+
+    /**
+     * @return The height of a single row in this list
+     */
+    public int rowHeight() {
+        return this.child.rowHeight;
+    }
+
+    @FunctionalInterface
+    public interface RowBinder<T, R extends Component> {
+        /**
+         * Update the given row to display the given item. The row
+         * may previously have displayed any other item in the list
+         *
+         * @param row   The row to update
+         * @param item  The item which the row should display
+         * @param index The index of the item in the list
+         */
+        void bind(R row, T item, int index);
+    }
+
+    /**
+     * The content of a {@link VirtualListContainer}, which is as tall as all
+     * rows combined but only holds the components of the visible rows
+     */
+    public static class Rows<T, R extends Component> extends BaseParentComponent {
+
+        protected final int rowHeight;
+        protected final Supplier<R> rowFactory;
+        protected final RowBinder<T, R> rowBinder;
+        protected List<? extends T> items;
+        protected int overscan = 4;
+
+        protected final Int2ObjectOpenHashMap<R> rowsByIndex = new Int2ObjectOpenHashMap<>();
+        protected final ArrayDeque<R> recycledRows = new ArrayDeque<>();
+
+        protected final List<Component> children = new ArrayList<>();
+        protected final List<Component> childrenView = Collections.unmodifiableList(this.children);
+
+        protected int firstRow = 0, lastRow = 0;
+
+        protected Rows(int rowHeight, List<? extends T> items, Supplier<R> rowFactory, RowBinder<T, R> rowBinder) {
+            super(Sizing.fill(100), Sizing.content());
+
+            this.rowHeight = rowHeight;
+            this.items = items;
+            this.rowFactory = rowFactory;
+            this.rowBinder = rowBinder;
+        }
+
+        @Override
+        protected int determineHorizontalContentSize(Sizing sizing) {
+            throw new UnsupportedOperationException("Virtual list rows cannot be horizontally content-sized");
+        }
+
+        @Override
+        protected int determineVerticalContentSize(Sizing sizing) {
+            return this.items.size() * this.rowHeight + this.padding.get().vertical();
+        }
+
+        @Override
+        public void layout(Size space) {
+            for (var entry : this.rowsByIndex.int2ObjectEntrySet()) {
+                this.mountRow(entry.getValue(), entry.getIntKey());
+            }
+        }
+
+        @Override
+        public void draw(OwoUIDrawContext context, int mouseX, int mouseY, float partialTicks, float delta) {
+            super.draw(context, mouseX, mouseY, partialTicks, delta);
+            this.drawChildren(context, mouseX, mouseY, partialTicks, delta, this.children);
+        }
+
+        protected void mountRow(R row, int index) {
+            var padding = this.padding.get();
+            var margins = row.margins().get();
+
+            row.inflate(Size.of(this.width - padding.horizontal(), this.rowHeight));
+            row.mount(this, this.x + padding.left() + margins.left(), this.y + padding.top() + index * this.rowHeight + margins.top());
+        }
+
+        /**
+         * Mount exactly the rows which intersect the given
+         * range, relative to the top of the first row
+         */
+        protected void showRange(double start, double end) {
+            int firstRow = MathHelper.clamp((int) Math.floor(start / this.rowHeight) - this.overscan, 0, this.items.size());
+            int lastRow = MathHelper.clamp((int) Math.ceil(end / this.rowHeight) + this.overscan, firstRow, this.items.size());
+            if (firstRow == this.firstRow && lastRow == this.lastRow) return;
+
+            this.firstRow = firstRow;
+            this.lastRow = lastRow;
+
+            this.runAndDeferEvents(() -> {
+                var rows = this.rowsByIndex.int2ObjectEntrySet().iterator();
+                while (rows.hasNext()) {
+                    var entry = rows.next();
+                    if (entry.getIntKey() >= firstRow && entry.getIntKey() < lastRow) continue;
+
+                    entry.getValue().dismount(DismountReason.REMOVED);
+                    this.recycledRows.push(entry.getValue());
+                    rows.remove();
+                }
+
+                this.children.clear();
+                for (int i = firstRow; i < lastRow; i++) {
+                    var row = this.rowsByIndex.get(i);
+                    if (row == null) {
+                        row = this.recycledRows.isEmpty() ? this.rowFactory.get() : this.recycledRows.pop();
+                        this.rowsByIndex.put(i, row);
+
+                        // rows are bound while mounted so that any layout
+                        // changes caused by binding propagate as usual
+                        this.mountRow(row, i);
+                        this.rowBinder.bind(row, this.items.get(i), i);
+                    }
+
+                    this.children.add(row);
+                }
+            });
+        }
+
+        protected void refresh() {
+            this.runAndDeferEvents(() -> {
+                for (var row : this.rowsByIndex.values()) {
+                    row.dismount(DismountReason.REMOVED);
+                    this.recycledRows.push(row);
+                }
+
+                this.rowsByIndex.clear();
+                this.children.clear();
+                this.firstRow = this.lastRow = 0;
+            });
+
+            this.updateLayout();
+        }
+
+        @Override
+        public List<Component> children() {
+            return this.childrenView;
+        }
+
+        @Override
+        public Rows<T, R> removeChild(Component child) {
+            throw new UnsupportedOperationException("Cannot remove rows from a virtual list");
+        }
+    }
+}
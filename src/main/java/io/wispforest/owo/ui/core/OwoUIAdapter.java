@@ -44,6 +44,7 @@ public class OwoUIAdapter<R extends ParentComponent> implements Element, Drawabl
 
     protected boolean disposed = false;
     protected boolean captureFrame = false;
+    protected int lastFrameFlushes = 0;
 
     protected int x, y;
     protected int width, height;
@@ -146,6 +147,15 @@ public class OwoUIAdapter<R extends ParentComponent> implements Element, Drawabl
         return this.globalInspector = !this.globalInspector;
     }
 
+    /**
+     * @return How often pending geometry was drawn during the last
+     * call to {@link #render(DrawContext, int, int, float)}, useful for
+     * measuring how well the UI batches its draw calls
+     */
+    public int lastFrameFlushes() {
+        return this.lastFrameFlushes;
+    }
+
     public int x() {
         return this.x;
     }
@@ -167,6 +177,8 @@ public class OwoUIAdapter<R extends ParentComponent> implements Element, Drawabl
         if (!(context instanceof OwoUIDrawContext)) context = OwoUIDrawContext.of(context);
         var owoContext = (OwoUIDrawContext) context;
 
+        int flushesBefore = OwoUIDrawContext.flushCount();
+
         try {
             isRendering = true;
 
@@ -201,6 +213,7 @@ public class OwoUIAdapter<R extends ParentComponent> implements Element, Drawabl
         } finally {
             isRendering = false;
             this.captureFrame = false;
+            this.lastFrameFlushes = OwoUIDrawContext.flushCount() - flushesBefore;
         }
     }
 
@@ -37,6 +37,8 @@ public class OwoUIDrawContext extends DrawContext {
     public static final Identifier DARK_PANEL_NINE_PATCH_TEXTURE = Identifier.of("owo", "panel/dark");
     public static final Identifier PANEL_INSET_NINE_PATCH_TEXTURE = Identifier.of("owo", "panel/inset");
 
+    private static int flushes = 0;
+
     private boolean recording = false;
 
     private OwoUIDrawContext(MinecraftClient client, VertexConsumerProvider.Immediate vertexConsumers) {
@@ -51,6 +53,22 @@ public class OwoUIDrawContext extends DrawContext {
         return owoContext;
     }
 
+    @Override
+    public void draw() {
+        flushes++;
+        super.draw();
+    }
+
+    /**
+     * @return The total amount of times any owo-ui draw context has drawn
+     * its pending geometry. Every such flush submits one draw call per render
+     * layer in use, so fewer flushes mean more geometry per draw call
+     * @see OwoUIAdapter#lastFrameFlushes()
+     */
+    public static int flushCount() {
+        return flushes;
+    }
+
     public VertexConsumerProvider.Immediate vertexConsumers() {
         return ((DrawContextInvoker) this).owo$vertexConsumers();
     }
@@ -50,18 +50,31 @@ public interface Surface {
         };
     }
 
+    /**
+     * Blur whatever has been drawn behind the component. The blur is computed at
+     * reduced resolution from just the area around the component, see {@link io.wispforest.owo.shader.DownsampledBlurProgram}
+     *
+     * @param quality How smooth the blur should be, roughly four times the amount of blur iterations
+     * @param size    The radius of the blur, in framebuffer pixels
+     */
     static Surface blur(float quality, float size) {
         return (context, component) -> {
-            var buffer = Tessellator.getInstance().begin(VertexFormat.DrawMode.QUADS, VertexFormats.POSITION);
+            // geometry which is still queued must be in the
+            // framebuffer before its contents are copied
+            context.draw();
+
             var matrix = context.getMatrices().peek().getPositionMatrix();
+            if (!OwoClient.DOWNSAMPLED_BLUR_PROGRAM.prepare(matrix, component.x(), component.y(), component.width(), component.height(), quality, size)) {
+                return;
+            }
+
+            var buffer = Tessellator.getInstance().begin(VertexFormat.DrawMode.QUADS, VertexFormats.POSITION);
 
             buffer.vertex(matrix, component.x(), component.y(), 0);
             buffer.vertex(matrix, component.x(), component.y() + component.height(), 0);
             buffer.vertex(matrix, component.x() + component.width(), component.y() + component.height(), 0);
             buffer.vertex(matrix, component.x() + component.width(), component.y(), 0);
 
-            OwoClient.BLUR_PROGRAM.setParameters(16, quality, size);
-            OwoClient.BLUR_PROGRAM.use();
             BufferRenderer.drawWithGlobalProgram(buffer.end());
         };
     }
@@ -8,18 +8,38 @@ import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.gui.DrawContext;
 import net.minecraft.client.util.math.MatrixStack;
 import net.minecraft.util.math.MathHelper;
+import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.Nullable;
-import org.joml.Vector4f;
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
 import org.lwjgl.opengl.GL11;
 
-import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Deque;
-
+import java.util.Arrays;
+
+/**
+ * The stack of clipping rectangles owo-ui draws with. Frames are kept in a pool which
+ * only ever grows and the scissor state of OpenGL is shadowed on the CPU, so that pushing
+ * and popping neither allocates nor queries the driver. The scissor box is only
+ * updated when it actually changes
+ */
 public final class ScissorStack {
 
-    private static final MatrixStack EMPTY_STACK = new MatrixStack();
-    private static final Deque<PositionedRectangle> STACK = new ArrayDeque<>();
+    private static final Matrix4f TRANSFORM = new Matrix4f();
+    private static final Vector3f ROOT = new Vector3f();
+    private static final Vector3f END = new Vector3f();
+    private static final Frame CANDIDATE = new Frame();
+
+    private static Frame[] frames = new Frame[16];
+    private static int depth = 0;
+
+    // Shadowed GL state, kept up to date by GlStateManagerMixin
+    private static boolean testEnabled = false;
+    private static int boxX = -1, boxY = -1, boxWidth = -1, boxHeight = -1;
+
+    static {
+        for (int i = 0; i < frames.length; i++) frames[i] = new Frame();
+    }
 
     private ScissorStack() {}
 
@@ -36,57 +56,125 @@ public final class ScissorStack {
         );
     }
 
+    /**
+     * Push a new frame onto the stack. The geometry pending in {@code context}
+     * is only drawn if the new frame actually narrows the current one
+     */
     public static void push(int x, int y, int width, int height, DrawContext context) {
+        transform(x, y, width, height, context.getMatrices(), CANDIDATE);
+        if (depth > 0) CANDIDATE.setIntersection(frames[depth - 1], CANDIDATE);
+
+        if (depth > 0 && frames[depth - 1].sameAs(CANDIDATE)) {
+            pushFrame(CANDIDATE);
+            return;
+        }
+
         context.draw();
 
-        push(x, y, width, height, context.getMatrices());
+        pushFrame(CANDIDATE);
+        applyState();
     }
 
     public static void push(int x, int y, int width, int height, @Nullable MatrixStack matrices) {
-        final var newFrame = withGlTransform(x, y, width, height, matrices);
+        transform(x, y, width, height, matrices, CANDIDATE);
+        if (depth > 0) CANDIDATE.setIntersection(frames[depth - 1], CANDIDATE);
 
-        if (STACK.isEmpty()) {
-            STACK.push(newFrame);
-        } else {
-            var top = STACK.peek();
-            STACK.push(top.intersection(newFrame));
+        pushFrame(CANDIDATE);
+        applyState();
+    }
+
+    private static void pushFrame(Frame frame) {
+        if (depth == frames.length) {
+            frames = Arrays.copyOf(frames, frames.length * 2);
+            for (int i = depth; i < frames.length; i++) frames[i] = new Frame();
         }
 
+        frames[depth++].set(frame);
+    }
+
+    /**
+     * Pop the top frame off the stack, drawing the geometry pending in {@code context}
+     * beforehand so that it is clipped to that frame. If the frame below is identical,
+     * nothing needs to be drawn
+     */
+    public static void pop(DrawContext context) {
+        if (depth == 0) {
+            throw new IllegalStateException("Cannot pop frame from empty scissor stack");
+        }
+
+        depth--;
+        if (depth > 0 && frames[depth - 1].sameAs(frames[depth])) return;
+
+        context.draw();
         applyState();
     }
 
     public static void pop() {
-        if (STACK.isEmpty()) {
+        if (depth == 0) {
             throw new IllegalStateException("Cannot pop frame from empty scissor stack");
         }
 
-        STACK.pop();
+        depth--;
         applyState();
     }
 
     private static void applyState() {
-        if (STACK.isEmpty()) {
-            var window = MinecraftClient.getInstance().getWindow();
-            GL11.glScissor(0, 0, window.getFramebufferWidth(), window.getFramebufferHeight());
+        var window = MinecraftClient.getInstance().getWindow();
+
+        if (depth == 0) {
+            scissorBox(0, 0, window.getFramebufferWidth(), window.getFramebufferHeight());
             return;
         }
 
-        if (!GL11.glIsEnabled(GL11.GL_SCISSOR_TEST)) return;
+        if (!testEnabled) return;
 
-        var newFrame = STACK.peek();
-        var window = MinecraftClient.getInstance().getWindow();
+        var newFrame = frames[depth - 1];
         var scale = window.getScaleFactor();
 
-        GL11.glScissor(
-                Math.max(0, (int) (newFrame.x() * scale)),
-                Math.max((int) (window.getFramebufferHeight() - (newFrame.y() * scale) - newFrame.height() * scale), 0),
-                Math.min(MathHelper.clamp((int) (newFrame.width() * scale), 0, window.getFramebufferWidth()), window.getFramebufferWidth()),
-                Math.min(MathHelper.clamp((int) (newFrame.height() * scale), 0, window.getFramebufferHeight()), window.getFramebufferHeight())
+        scissorBox(
+                Math.max(0, (int) (newFrame.x * scale)),
+                Math.max((int) (window.getFramebufferHeight() - (newFrame.y * scale) - newFrame.height * scale), 0),
+                Math.min(MathHelper.clamp((int) (newFrame.width * scale), 0, window.getFramebufferWidth()), window.getFramebufferWidth()),
+                Math.min(MathHelper.clamp((int) (newFrame.height * scale), 0, window.getFramebufferHeight()), window.getFramebufferHeight())
         );
     }
 
+    private static void scissorBox(int x, int y, int width, int height) {
+        if (x == boxX && y == boxY && width == boxWidth && height == boxHeight) return;
+        GlStateManager._scissorBox(x, y, width, height);
+    }
+
+    @ApiStatus.Internal
+    public static void shadowTestState(boolean enabled) {
+        testEnabled = enabled;
+    }
+
+    @ApiStatus.Internal
+    public static void shadowScissorBox(int x, int y, int width, int height) {
+        boxX = x;
+        boxY = y;
+        boxWidth = width;
+        boxHeight = height;
+    }
+
+    /**
+     * @return The scissor box OpenGL currently uses, in framebuffer pixels. This is
+     * read from the shadowed state and only queries the driver if the box
+     * was never set since the game started
+     */
+    @ApiStatus.Internal
+    public static PositionedRectangle shadowedScissorBox() {
+        if (boxWidth == -1) {
+            int[] box = new int[4];
+            GL11.glGetIntegerv(GL11.GL_SCISSOR_BOX, box);
+            shadowScissorBox(box[0], box[1], box[2], box[3]);
+        }
+
+        return PositionedRectangle.of(boxX, boxY, boxWidth, boxHeight);
+    }
+
     public static void drawUnclipped(Runnable action) {
-        boolean scissorEnabled = GL11.glIsEnabled(GL11.GL_SCISSOR_TEST);
+        boolean scissorEnabled = testEnabled;
 
         if (scissorEnabled) GlStateManager._disableScissorTest();
         action.run();
@@ -94,66 +182,105 @@ public final class ScissorStack {
     }
 
     public static void popFramesAndDraw(int maxPopFrames, Runnable action) {
-        var previousFrames = new ArrayList<PositionedRectangle>();
-        while (maxPopFrames > 1 && STACK.size() > 1) {
-            previousFrames.add(0, STACK.pop());
+        var previousFrames = new ArrayList<Frame>();
+        while (maxPopFrames > 1 && depth > 1) {
+            previousFrames.add(0, new Frame().set(frames[--depth]));
             maxPopFrames--;
         }
 
         applyState();
         action.run();
 
-        previousFrames.forEach(STACK::push);
+        previousFrames.forEach(ScissorStack::pushFrame);
         applyState();
     }
 
     public static boolean isVisible(int x, int y, @Nullable MatrixStack matrices) {
-        var top = STACK.peek();
-        if (top == null) return true;
+        if (depth == 0) return true;
 
-        return top.intersects(
-                withGlTransform(
-                        x, y, 0, 0, matrices
-                )
-        );
+        transform(x, y, 0, 0, matrices, CANDIDATE);
+        return frames[depth - 1].intersects(CANDIDATE);
     }
 
     public static boolean isVisible(Component component, @Nullable MatrixStack matrices) {
-        var top = STACK.peek();
-        if (top == null) return true;
+        if (depth == 0) return true;
 
         var margins = component.margins().get();
-        return top.intersects(
-                withGlTransform(
-                        component.x() - margins.left(),
-                        component.y() - margins.top(),
-                        component.width() + margins.right(),
-                        component.height() + margins.bottom(),
-                        matrices
-                )
+        transform(
+                component.x() - margins.left(),
+                component.y() - margins.top(),
+                component.width() + margins.right(),
+                component.height() + margins.bottom(),
+                matrices,
+                CANDIDATE
         );
+
+        return frames[depth - 1].intersects(CANDIDATE);
+    }
+
+    private static void transform(int x, int y, int width, int height, @Nullable MatrixStack matrices, Frame into) {
+        if (matrices != null) {
+            TRANSFORM.set(matrices.peek().getPositionMatrix()).mul(RenderSystem.getModelViewMatrix());
+        } else {
+            TRANSFORM.set(RenderSystem.getModelViewMatrix());
+        }
+
+        TRANSFORM.transformPosition(ROOT.set(x, y, 0));
+        TRANSFORM.transformPosition(END.set(x + width, y + height, 0));
+
+        into.x = (int) ROOT.x;
+        into.y = (int) ROOT.y;
+        into.width = (int) Math.ceil(END.x - ROOT.x);
+        into.height = (int) Math.ceil(END.y - ROOT.y);
     }
 
-    private static PositionedRectangle withGlTransform(int x, int y, int width, int height, @Nullable MatrixStack matrices) {
-        if (matrices == null) matrices = EMPTY_STACK;
+    private static final class Frame implements PositionedRectangle {
 
-        matrices.push();
-        matrices.multiplyPositionMatrix(RenderSystem.getModelViewMatrix());
+        private int x, y, width, height;
 
-        var root = new Vector4f(x, y, 0, 1);
-        var end = new Vector4f(x + width, y + height, 0, 1);
+        private Frame set(Frame other) {
+            this.x = other.x;
+            this.y = other.y;
+            this.width = other.width;
+            this.height = other.height;
+            return this;
+        }
 
-        root.mul(matrices.peek().getPositionMatrix());
-        end.mul(matrices.peek().getPositionMatrix());
+        private void setIntersection(Frame a, Frame b) {
+            int leftEdge = Math.max(a.x, b.x);
+            int topEdge = Math.max(a.y, b.y);
 
-        x = (int) root.x;
-        y = (int) root.y;
+            int rightEdge = Math.min(a.x + a.width, b.x + b.width);
+            int bottomEdge = Math.min(a.y + a.height, b.y + b.height);
 
-        width = (int) Math.ceil(end.x - root.x);
-        height = (int) Math.ceil(end.y - root.y);
+            this.x = leftEdge;
+            this.y = topEdge;
+            this.width = Math.max(rightEdge - leftEdge, 0);
+            this.height = Math.max(bottomEdge - topEdge, 0);
+        }
 
-        matrices.pop();
+        private boolean sameAs(Frame other) {
+            return this.x == other.x && this.y == other.y && this.width == other.width && this.height == other.height;
+        }
 
-        return PositionedRectangle.of(x, y, width, height);
+        @Override
+        public int x() {
+            return this.x;
+        }
+
+        @Override
+        public int y() {
+            return this.y;
+        }
+
+        @Override
+        public int width() {
+            return this.width;
+        }
+
+        @Override
+        public int height() {
+            return this.height;
+        }
     }
 }
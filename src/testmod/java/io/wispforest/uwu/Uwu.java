@@ -485,6 +485,7 @@ public class Uwu implements ModInitializer {
         CustomTextRegistry.register(BasedTextContent.TYPE, "based");
 
         UwuNetworkExample.init();
+        UwuChunkedDeltaTest.init();
         UwuOptionalNetExample.init();
     }
 
@@ -0,0 +1,3 @@
+package io.wispforest.uwu.network;
+
+public record ChunkedDeltaPacket(int sequence, String payload) {}
@@ -0,0 +1,125 @@
+package io.wispforest.uwu.network;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.Unpooled;
+import io.wispforest.endec.Endec;
+import io.wispforest.endec.SerializationContext;
+import io.wispforest.endec.StructEndec;
+import io.wispforest.endec.impl.StructEndecBuilder;
+import io.wispforest.owo.serialization.format.nbt.BinaryNbtDeserializer;
+import io.wispforest.owo.serialization.format.nbt.BinaryNbtSerializer;
+import io.wispforest.owo.serialization.format.nbt.NbtDeserializer;
+import io.wispforest.owo.serialization.format.nbt.NbtProjection;
+import io.wispforest.owo.serialization.format.nbt.NbtSerializer;
+import net.minecraft.nbt.*;
+import net.minecraft.util.Util;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+
+import static io.wispforest.uwu.network.UwuTestAssertions.testEquals;
+
+public class UwuBinaryNbtTest {
+
+    public static final StructEndec<Profile> PROFILE_ENDEC = StructEndecBuilder.of(
+            Endec.STRING.fieldOf("name", Profile::name),
+            Endec.INT.fieldOf("level", Profile::level),
+            Endec.STRING.optionalFieldOf("title", Profile::title, (String) null),
+            Endec.INT.listOf().fieldOf("scores", Profile::scores),
+            Endec.DOUBLE.mapOf().fieldOf("stats", Profile::stats),
+            Endec.STRING.listOf().listOf().fieldOf("nested", Profile::nested),
+            Profile::new
+    );
+
+    public static void main(String[] args) {
+        var withTitle = new Profile("glisco", 69, "owo", List.of(1, 2, 3), Map.of("speed", 1.5d, "luck", -2d), List.of(List.of("a", "b"), List.of(), List.of("c")));
+        var withoutTitle = new Profile("chyzman", 0, null, List.of(), Map.of(), List.of(List.of("only")));
+
+        for (var profile : List.of(withTitle, withoutTitle)) {
+            testProfile(profile);
+            System.out.println();
+        }
+
+        testProjection();
+    }
+
+    private static void testProfile(Profile profile) {
+        var ctx = SerializationContext.empty();
+        var expected = PROFILE_ENDEC.encodeFully(ctx, NbtSerializer::of, profile);
+
+        // BinaryNbtSerializer -> NbtIo
+        var binary = PROFILE_ENDEC.encodeFully(ctx, () -> BinaryNbtSerializer.of(Unpooled.buffer()), profile);
+        testEquals(expected, readNbt(binary.copy()));
+
+        // NbtIo -> BinaryNbtDeserializer
+        var packet = writeNbt(expected);
+        testEquals(profile, PROFILE_ENDEC.decodeFully(ctx, BinaryNbtDeserializer::of, packet.copy()));
+
+        // omitted optional fields decode the same as through NbtDeserializer
+        testEquals(
+                PROFILE_ENDEC.decodeFully(ctx, NbtDeserializer::of, expected),
+                PROFILE_ENDEC.decodeFully(ctx, BinaryNbtDeserializer::of, binary.copy())
+        );
+
+        // readAny reproduces nested lists and compounds
+        var visitor = NbtSerializer.of();
+        BinaryNbtDeserializer.of(packet.copy()).readAny(ctx, visitor);
+        testEquals(expected, visitor.result());
+    }
+
+    private static void testProjection() {
+        // the target follows lists and arrays of fixed-size elements, which the
+        // projection skips by their length, and a list of compounds which it walks
+        var compound = new NbtCompound();
+        compound.put("ints", Util.make(new NbtList(), list -> {
+            for (int i = 0; i < 100; i++) list.add(NbtInt.of(i));
+        }));
+        compound.put("doubles", Util.make(new NbtList(), list -> {
+            for (int i = 0; i < 10; i++) list.add(NbtDouble.of(i / 3d));
+        }));
+        compound.put("longs", new NbtLongArray(new long[]{1, 2, 3}));
+        compound.put("compounds", Util.make(new NbtList(), list -> {
+            for (int i = 0; i < 3; i++) {
+                var entry = new NbtCompound();
+                entry.putString("index", String.valueOf(i));
+                list.add(entry);
+            }
+        }));
+        compound.putString("target", "hahayes epic text");
+        compound.putInt("after", 42);
+
+        var projection = NbtProjection.of(writeNbt(compound));
+        var ctx = SerializationContext.empty();
+
+        testEquals("hahayes epic text", projection.getWithErrors(ctx, Endec.STRING.keyed("target", "")));
+        testEquals(42, projection.getWithErrors(ctx, Endec.INT.keyed("after", 0)));
+        testEquals(List.of(1L, 2L, 3L), projection.getWithErrors(ctx, Endec.LONG.listOf().keyed("longs", List.of())));
+        testEquals(false, projection.has(Endec.INT.keyed("missing", 0)));
+    }
+
+    private static NbtElement readNbt(ByteBuf buffer) {
+        try {
+            return NbtIo.read(new ByteBufInputStream(buffer), NbtSizeTracker.ofUnlimitedBytes());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static ByteBuf writeNbt(NbtElement element) {
+        var buffer = Unpooled.buffer();
+        try {
+            NbtIo.writeForPacket(element, new ByteBufOutputStream(buffer));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return buffer;
+    }
+
+    public record Profile(String name, int level, @Nullable String title, List<Integer> scores, Map<String, Double> stats, List<List<String>> nested) {}
+}
@@ -0,0 +1,43 @@
+package io.wispforest.uwu.network;
+
+import io.wispforest.owo.network.OwoNetChannel;
+import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
+import net.minecraft.text.Text;
+import net.minecraft.util.Identifier;
+
+import static net.minecraft.server.command.CommandManager.literal;
+
+/**
+ * Sends a delta which has to be chunked followed by a small one to the
+ * same player - the client must receive and apply them in order
+ */
+public class UwuChunkedDeltaTest {
+
+    public static final OwoNetChannel CHANNEL = OwoNetChannel.create(Identifier.of("uwu", "chunked_delta")).chunked(1024, 2048, false);
+
+    private static int runs = 0;
+    private static int lastSequence = 0;
+
+    public static void init() {
+        CHANNEL.registerClientboundDelta(ChunkedDeltaPacket.class, (message, access) -> {
+            boolean inOrder = message.sequence() == 1 || message.sequence() == lastSequence + 1;
+            lastSequence = message.sequence();
+
+            access.player().sendMessage(Text.of("Received delta " + message.sequence() + " with " + message.payload().length() + " characters, in order -> " + inOrder), false);
+        });
+
+        CommandRegistrationCallback.EVENT.register((dispatcher, access, environment) -> {
+            dispatcher.register(literal("chunked_delta_test").executes(context -> {
+                var player = context.getSource().getPlayerOrThrow();
+
+                // the first delta carries the entire payload and is spread over several
+                // ticks, the second one only changes the sequence and fits in a single packet
+                var payload = ("owo" + runs++).repeat(4096);
+                CHANNEL.serverHandle(player).send(new ChunkedDeltaPacket(1, payload));
+                CHANNEL.serverHandle(player).send(new ChunkedDeltaPacket(2, payload));
+
+                return 1;
+            }));
+        });
+    }
+}
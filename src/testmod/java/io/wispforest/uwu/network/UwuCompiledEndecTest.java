@@ -0,0 +1,56 @@
+package io.wispforest.uwu.network;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.wispforest.endec.StructEndec;
+import io.wispforest.endec.annotations.NullableComponent;
+import io.wispforest.endec.format.bytebuf.ByteBufDeserializer;
+import io.wispforest.endec.format.bytebuf.ByteBufSerializer;
+import io.wispforest.endec.impl.RecordEndec;
+import io.wispforest.endec.impl.ReflectiveEndecBuilder;
+import io.wispforest.owo.serialization.endec.CompiledRecordEndec;
+import net.fabricmc.fabric.api.networking.v1.PacketByteBufs;
+
+import java.util.List;
+
+import static io.wispforest.uwu.network.UwuTestAssertions.testEquals;
+
+public class UwuCompiledEndecTest {
+
+    public static void main(String[] args) {
+        // must be set before CompiledRecordEndec is initialized
+        System.setProperty("owo.compiledRecordEndecs", "true");
+
+        var builder = new ReflectiveEndecBuilder();
+
+        testRoundTrip(builder, PublicRecord.class, new PublicRecord(17, 2.5d, "hahayes epic text", List.of("a", "b"), null));
+        testRoundTrip(builder, PublicRecord.class, new PublicRecord(-1, 0d, "", List.of(), "present"));
+
+        System.out.println();
+
+        testRoundTrip(builder, PrivateRecord.class, new PrivateRecord(true, 'x', null));
+        testRoundTrip(builder, PrivateRecord.class, new PrivateRecord(false, 'y', List.of(1L, 2L, 3L)));
+    }
+
+    private static <R extends Record> void testRoundTrip(ReflectiveEndecBuilder builder, Class<R> recordClass, R value) {
+        var compiled = CompiledRecordEndec.create(builder, recordClass);
+        var reflective = RecordEndec.create(builder, recordClass);
+
+        System.out.println("Testing " + recordClass.getSimpleName() + ", compiled -> " + !(compiled instanceof RecordEndec<?>));
+
+        var compiledBytes = encode(compiled, value);
+        var reflectiveBytes = encode(reflective, value);
+
+        testEquals(compiledBytes, reflectiveBytes, ByteBufUtil::hexDump, ByteBufUtil::equals);
+        testEquals(value, compiled.decodeFully(ByteBufDeserializer::of, reflectiveBytes.copy()));
+        testEquals(value, reflective.decodeFully(ByteBufDeserializer::of, compiledBytes.copy()));
+    }
+
+    private static <R> ByteBuf encode(StructEndec<R> endec, R value) {
+        return endec.encodeFully(() -> ByteBufSerializer.of(PacketByteBufs.create()), value);
+    }
+
+    public record PublicRecord(int number, double decimal, String text, List<String> list, @NullableComponent String nullable) {}
+
+    private record PrivateRecord(boolean flag, char character, @NullableComponent List<Long> nullable) {}
+}
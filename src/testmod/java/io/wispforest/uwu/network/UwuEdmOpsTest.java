@@ -0,0 +1,80 @@
+package io.wispforest.uwu.network;
+
+import com.mojang.datafixers.util.Pair;
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.JsonOps;
+import com.mojang.serialization.codecs.RecordCodecBuilder;
+import io.wispforest.endec.format.edm.EdmElement;
+import io.wispforest.owo.serialization.format.edm.EdmOps;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.stream.IntStream;
+
+import static io.wispforest.uwu.network.UwuTestAssertions.testEquals;
+
+public class UwuEdmOpsTest {
+
+    private static final int SIZE = 100_000;
+
+    public static final Codec<Entry> ENTRY_CODEC = RecordCodecBuilder.create(instance -> instance.group(
+            Codec.STRING.fieldOf("name").forGetter(Entry::name),
+            Codec.INT.fieldOf("value").forGetter(Entry::value)
+    ).apply(instance, Entry::new));
+
+    public static void main(String[] args) {
+        var list = IntStream.range(0, SIZE).boxed().toList();
+
+        var map = new HashMap<String, Integer>();
+        for (int i = 0; i < SIZE; i++) map.put("key" + i, i);
+
+        var entries = new ArrayList<Entry>();
+        for (int i = 0; i < SIZE / 10; i++) entries.add(new Entry("entry" + i, i));
+
+        testCodec("list", Codec.INT.listOf(), list, list.size());
+        testCodec("map", Codec.unboundedMap(Codec.STRING, Codec.INT), map, map.size());
+        testCodec("records", ENTRY_CODEC.listOf(), entries, entries.size());
+
+        System.out.println();
+
+        // merging one element at a time must produce the same
+        // elements as creating the collection all at once
+        var ops = EdmOps.withoutContext();
+
+        EdmElement<?> merged = ops.empty();
+        for (int i = 0; i < 1000; i++) merged = ops.mergeToList(merged, ops.createInt(i)).getOrThrow();
+        testEquals(
+                ops.convertTo(JsonOps.INSTANCE, ops.createList(IntStream.range(0, 1000).mapToObj(ops::createInt))),
+                ops.convertTo(JsonOps.INSTANCE, merged),
+                $ -> "merged list", Object::equals
+        );
+
+        EdmElement<?> mergedMap = ops.empty();
+        for (int i = 0; i < 1000; i++) mergedMap = ops.mergeToMap(mergedMap, ops.createString("key" + i), ops.createInt(i)).getOrThrow();
+        testEquals(
+                ops.convertTo(JsonOps.INSTANCE, ops.createMap(IntStream.range(0, 1000).mapToObj(i -> Pair.of(ops.createString("key" + i), ops.createInt(i))))),
+                ops.convertTo(JsonOps.INSTANCE, mergedMap),
+                $ -> "merged map", Object::equals
+        );
+    }
+
+    private static <T> void testCodec(String name, Codec<T> codec, T value, int size) {
+        var ops = EdmOps.withoutContext();
+
+        long start = System.nanoTime();
+        var encoded = codec.encodeStart(ops, value).getOrThrow();
+        long encodeTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        var decoded = codec.parse(ops, encoded).getOrThrow();
+        long decodeTime = System.nanoTime() - start;
+
+        System.out.println("Encoding " + name + " took " + encodeTime / 1_000_000 + " ms, decoding took " + decodeTime / 1_000_000 + " ms");
+
+        // the json encoding serves as the reference for the structure EdmOps produces
+        testEquals(codec.encodeStart(JsonOps.INSTANCE, value).getOrThrow(), ops.convertTo(JsonOps.INSTANCE, encoded), $ -> name + " as json", Object::equals);
+        testEquals(value, decoded, $ -> name + " of " + size, Object::equals);
+    }
+
+    public record Entry(String name, int value) {}
+}
@@ -9,10 +9,10 @@ import net.fabricmc.fabric.api.networking.v1.PacketByteBufs;
 
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Objects;
-import java.util.function.BiPredicate;
 import java.util.function.Function;
 
+import static io.wispforest.uwu.network.UwuTestAssertions.testEquals;
+
 public class UwuNetworkTest {
 
     public static void main(String[] args) {
@@ -65,15 +65,4 @@ public class UwuNetworkTest {
     public record TestRecord(List<String> text, TestEnum enumValue) {}
 
     public enum TestEnum {ONE_VALUE, ANOTHER_VALUE}
-
-    private static <T> void testEquals(T object, T other) {
-        testEquals(object, other, Objects::toString, Object::equals);
-    }
-
-    private static <T> void testEquals(T object, T other, Function<T, String> formatter, BiPredicate<T, T> predicate) {
-        System.out.println("Comparing '" + formatter.apply(object) + "' to '" + formatter.apply(other) + "'");
-        System.out.println("object == other -> " + (object == other));
-        System.out.println("predicate.test(object, other) -> " + predicate.test(object, other));
-    }
-
 }
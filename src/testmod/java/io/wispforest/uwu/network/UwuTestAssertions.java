@@ -0,0 +1,30 @@
+package io.wispforest.uwu.network;
+
+import java.util.Objects;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+/**
+ * Comparison helpers shared by the main-method checks in this package. Every
+ * comparison is printed, and a mismatch fails the check with an {@link AssertionError}
+ */
+public final class UwuTestAssertions {
+
+    private UwuTestAssertions() {}
+
+    public static <T> void testEquals(T object, T other) {
+        testEquals(object, other, Objects::toString, Object::equals);
+    }
+
+    public static <T> void testEquals(T object, T other, Function<T, String> formatter, BiPredicate<T, T> predicate) {
+        System.out.println("Comparing '" + formatter.apply(object) + "' to '" + formatter.apply(other) + "'");
+        System.out.println("object == other -> " + (object == other));
+
+        boolean matches = predicate.test(object, other);
+        System.out.println("predicate.test(object, other) -> " + matches);
+
+        if (!matches) {
+            throw new AssertionError("Mismatch: expected '" + formatter.apply(object) + "' but got '" + formatter.apply(other) + "'");
+        }
+    }
+}